@@ -2,11 +2,30 @@ package org.example;
 
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
+import org.example.cleanup.LedgerReaperListener;
+import org.example.lifecycle.CardScaleScenario;
+import org.example.lifecycle.CredentialRouter;
+import org.example.lifecycle.ReadCoalescer;
+import org.example.lifecycle.TrelloOperations;
+import org.testng.Assert;
 import org.testng.ISuite;
 import org.testng.ITestContext;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 import utilities.ConfigReader;
+import utilities.Credential;
+import utilities.ResourceLedger;
+import utilities.http.JsonFieldExtractor;
+import utilities.http.TrelloTransport;
+import utilities.metrics.InstrumentationListener;
+import utilities.metrics.LatencyRegressionGate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static io.restassured.RestAssured.given;
 
@@ -24,11 +43,18 @@ import static io.restassured.RestAssured.given;
  * adding cards to the lists, updating card details randomly, and finally, deleting the created boards and cards. Each test method
  * in this class is designed to execute a specific step in this sequence, and dependencies between methods ensure a logical order
  * of execution.
+
+ * Every request goes through the shared transport's base specification, whose instrumentation filter records latency,
+ * bytes and status per test method and endpoint; the report is written when the suite ends.
  */
+@Listeners({InstrumentationListener.class, LedgerReaperListener.class})
 public class TrelloTestRestAssured {
 
-    private static final String API_TOKEN = ConfigReader.getProperty("APIToken");
-    private static final String API_KEY = ConfigReader.getProperty("APIKey");
+    // With several "TrelloCredentials", each test class sticks to the pair its name hashes to
+    private static final Credential CREDENTIAL =
+            CredentialRouter.shared().primary(TrelloTestRestAssured.class.getName().hashCode()).getCredential();
+    private static final String API_KEY = CREDENTIAL.getApiKey();
+    private static final String API_TOKEN = CREDENTIAL.getApiToken();
     private static final String BOARD_ENDPOINT = "/boards";
     private static final String LISTS_ENDPOINT = "/lists";
     private static final String CARDS_ENDPOINT = "/cards";
@@ -39,7 +65,10 @@ public class TrelloTestRestAssured {
     @BeforeClass
     public static void setup(ITestContext context) {
         // Set up the base URI for RestAssured using the Trello base URL from configuration
-        RestAssured.baseURI = ConfigReader.getProperty("TrelloBaseUrl");
+        RestAssured.baseURI = ConfigReader.getBaseUrl();
+
+        // Send every request through the shared pooled transport and its prebuilt base specification
+        RestAssured.requestSpecification = TrelloTransport.shared().getBaseSpec();
 
         // Access the test suite to store and share common attributes across test methods
         ISuite suite = context.getSuite();
@@ -51,6 +80,25 @@ public class TrelloTestRestAssured {
         suite.setAttribute("cardName1", "Trello Card1");
     }
 
+    /**
+     * Prints how many connections the run opened versus reused, to confirm that pooling works, how often requests
+     * waited for or were throttled by the rate limit, and how many round trips batching the verification reads saved.
+     */
+    @AfterClass(alwaysRun = true)
+    public static void reportTransport() {
+        System.out.println("HTTP transport: " + TrelloTransport.shared().getMetrics());
+        System.out.println("Rate limit: " + TrelloTransport.shared().getRateLimiter());
+        System.out.println("Verification reads: " + readCoalescer());
+    }
+
+    /**
+     * Fails the suite if endpoint latencies regressed against the previous runs, and records this run for later ones.
+     */
+    @AfterSuite(alwaysRun = true)
+    public static void checkLatencyRegression() {
+        LatencyRegressionGate.checkOnce();
+    }
+
     /**
      * Test method to create a Trello board by sending a request to the Trello API with the specified board name.
      * The resulting board ID is stored in test suite attributes for potential future use in subsequent test methods.
@@ -62,14 +110,16 @@ public class TrelloTestRestAssured {
         String boardName = (String) suite.getAttribute("boardName");
 
         // Create a Trello board and store the board ID in suite attributes
-        String boardId = given()
+        byte[] response = given()
                 .contentType(ContentType.JSON)
                 .queryParams("name", boardName, "key", API_KEY, "token", API_TOKEN)
                 .when()
                 .post(BOARD_ENDPOINT)
                 .then()
                 .statusCode(200)
-                .extract().jsonPath().get("id");
+                .extract().asByteArray();
+        String boardId = JsonFieldExtractor.extract(response, "id");
+        ResourceLedger.shared().recordCreated(ResourceLedger.BOARD, boardId, null, CREDENTIAL.getFingerprint());
 
         // Set the created board ID in suite attributes for potential future use
         suite.setAttribute("boardId", boardId);
@@ -87,14 +137,16 @@ public class TrelloTestRestAssured {
         String boardId = (String) suite.getAttribute("boardId");
 
         // Create a Trello list on the specified board and store the list ID in suite attributes
-        String listId = given()
+        byte[] response = given()
                 .contentType(ContentType.JSON)
                 .queryParams("name", listName, "idBoard", boardId, "key", API_KEY, "token", API_TOKEN)
                 .when()
                 .post(LISTS_ENDPOINT)
                 .then()
                 .statusCode(200)
-                .extract().jsonPath().get("id");
+                .extract().asByteArray();
+        String listId = JsonFieldExtractor.extract(response, "id");
+        ResourceLedger.shared().recordCreated(ResourceLedger.LIST, listId, boardId, CREDENTIAL.getFingerprint());
 
         // Set the created list ID in suite attributes for potential future use
         suite.setAttribute("listId", listId);
@@ -112,14 +164,16 @@ public class TrelloTestRestAssured {
         String listId = (String) suite.getAttribute("listId");
 
         // Create a Trello Card 1 on the specified list and store the card ID in suite attributes
-        String cardId1 = given()
+        byte[] response = given()
                 .contentType(ContentType.JSON)
                 .queryParams("name", cardName1, "idList", listId, "key", API_KEY, "token", API_TOKEN)
                 .when()
                 .post(CARDS_ENDPOINT)
                 .then()
                 .statusCode(200)
-                .extract().jsonPath().get("id");
+                .extract().asByteArray();
+        String cardId1 = JsonFieldExtractor.extract(response, "id");
+        ResourceLedger.shared().recordCreated(ResourceLedger.CARD, cardId1, listId, CREDENTIAL.getFingerprint());
 
         // Set the created Card 1 ID in suite attributes for potential future use
         suite.setAttribute("cardId1", cardId1);
@@ -137,14 +191,16 @@ public class TrelloTestRestAssured {
         String listId = (String) suite.getAttribute("listId");
 
         // Create a Trello Card 2 on the specified list and store the card ID in suite attributes
-        String cardId2 = given()
+        byte[] response = given()
                 .contentType(ContentType.JSON)
                 .queryParams("name", cardName2, "idList", listId, "key", API_KEY, "token", API_TOKEN)
                 .when()
                 .post(CARDS_ENDPOINT)
                 .then()
                 .statusCode(200)
-                .extract().jsonPath().get("id");
+                .extract().asByteArray();
+        String cardId2 = JsonFieldExtractor.extract(response, "id");
+        ResourceLedger.shared().recordCreated(ResourceLedger.CARD, cardId2, listId, CREDENTIAL.getFingerprint());
 
         // Set the created Card 2 ID in suite attributes for potential future use
         suite.setAttribute("cardId2", cardId2);
@@ -169,13 +225,44 @@ public class TrelloTestRestAssured {
                 .put(CARDS_ENDPOINT + "/" + randomCardID)
                 .then()
                 .statusCode(200);
+
+        // Remember which card was updated so that the read-back can check it
+        suite.setAttribute("updatedCardId", randomCardID);
     }
 
     /**
-     * Test method to delete a Trello Card on a previously created list.
+     * Test method to read back everything created and updated so far: the board exists, the list is on the board,
+     * the updated card carries the new name and color, and the other card is on the list.
+     * The four reads are queued together, so they go out as one /batch request.
      * Requires the "updateTrelloCardOnListRandomly" method to be executed first (dependency).
      */
     @Test(dependsOnMethods = "updateTrelloCardOnListRandomly")
+    public void verifyMutationsByBatchRead(ITestContext context) {
+        ISuite suite = context.getSuite();
+        String boardId = (String) suite.getAttribute("boardId");
+        String listId = (String) suite.getAttribute("listId");
+        String updatedCardId = (String) suite.getAttribute("updatedCardId");
+        String otherCardId = updatedCardId.equals(suite.getAttribute("cardId1"))
+                ? (String) suite.getAttribute("cardId2") : (String) suite.getAttribute("cardId1");
+
+        ReadCoalescer reads = readCoalescer();
+        CompletableFuture<ReadCoalescer.Result> board = reads.readBoard(boardId);
+        CompletableFuture<ReadCoalescer.Result> list = reads.readList(listId);
+        CompletableFuture<ReadCoalescer.Result> updatedCard = reads.readCard(updatedCardId);
+        CompletableFuture<ReadCoalescer.Result> otherCard = reads.readCard(otherCardId);
+
+        Assert.assertEquals(board.join().getStatus(), 200, "Board " + boardId + " not found");
+        Assert.assertEquals(list.join().getString("idBoard"), boardId, "List is not on the board");
+        Assert.assertEquals(updatedCard.join().getString("name"), "Trello Card Updated", "Card name was not updated");
+        Assert.assertEquals(updatedCard.join().getString("color"), "blue", "Card color was not updated");
+        Assert.assertEquals(otherCard.join().getString("idList"), listId, "Card is not on the list");
+    }
+
+    /**
+     * Test method to delete a Trello Card on a previously created list.
+     * Requires the "verifyMutationsByBatchRead" method to be executed first (dependency).
+     */
+    @Test(dependsOnMethods = "verifyMutationsByBatchRead")
     public void deleteTrelloCardOnList(ITestContext context) {
         // Retrieve Card 1 ID from suite attributes and send a request to delete the card
         ISuite suite = context.getSuite();
@@ -187,6 +274,7 @@ public class TrelloTestRestAssured {
                 .delete(CARDS_ENDPOINT + "/" + cardId1)
                 .then()
                 .statusCode(200);
+        ResourceLedger.shared().recordDeleted(ResourceLedger.CARD, cardId1);
     }
 
     /**
@@ -205,17 +293,61 @@ public class TrelloTestRestAssured {
                 .delete(CARDS_ENDPOINT + "/" + cardId2)
                 .then()
                 .statusCode(200);
+        ResourceLedger.shared().recordDeleted(ResourceLedger.CARD, cardId2);
     }
 
     /**
-     * Test method to delete a Trello Board.
+     * Test method to check that both deleted cards are gone; the two reads go out as one /batch request.
      * Requires the "deleteTrelloCard2OnList" method to be executed first (dependency).
      */
     @Test(dependsOnMethods = "deleteTrelloCard2OnList")
+    public void verifyCardDeletionByBatchRead(ITestContext context) {
+        ISuite suite = context.getSuite();
+        String cardId1 = (String) suite.getAttribute("cardId1");
+        String cardId2 = (String) suite.getAttribute("cardId2");
+
+        ReadCoalescer reads = readCoalescer();
+        CompletableFuture<ReadCoalescer.Result> card1 = reads.readCard(cardId1);
+        CompletableFuture<ReadCoalescer.Result> card2 = reads.readCard(cardId2);
+
+        Assert.assertEquals(card1.join().getStatus(), 404, "Deleted card " + cardId1 + " still exists");
+        Assert.assertEquals(card2.join().getStatus(), 404, "Deleted card " + cardId2 + " still exists");
+    }
+
+    /**
+     * Scale test: creates "ScaleCardCount" cards on the previously created list in bounded parallel batches, then
+     * pages through the list's cards and checks that each of them is there exactly once.
+     * Skipped when "ScaleCardCount" is 0, which is the default.
+     */
+    @Test(dependsOnMethods = "createTrelloListOnBoardAndStoreId")
+    public void createManyCardsOnListAndVerifyByPaging(ITestContext context) {
+        int count = (int) ConfigReader.getLong("ScaleCardCount", 0);
+        if (count <= 0) {
+            throw new SkipException("ScaleCardCount is " + count + ", no cards to create");
+        }
+        String listId = (String) context.getSuite().getAttribute("listId");
+
+        TrelloOperations operations = new TrelloOperations(ConfigReader.getBaseUrl(), API_KEY, API_TOKEN);
+        CardScaleScenario.Result result = CardScaleScenario.fromConfig(operations).run(listId, "Scale Card", count);
+        System.out.println("Card scale: " + result);
+        Assert.assertEquals(result.getFailedCreates(), 0, "Cards that could not be created");
+        Assert.assertTrue(result.isComplete(), "Cards missing or duplicated on the list: " + result);
+    }
+
+    /**
+     * Test method to delete a Trello Board.
+     * Requires the "verifyCardDeletionByBatchRead" and "createManyCardsOnListAndVerifyByPaging" methods to be executed
+     * first (dependency). It runs even if they failed or were skipped, e.g. the scale test by default, so the board
+     * is always deleted; it is only skipped when no board was created.
+     */
+    @Test(dependsOnMethods = {"verifyCardDeletionByBatchRead", "createManyCardsOnListAndVerifyByPaging"}, alwaysRun = true)
     public void deleteTrelloBoardAndVerifyDeletion (ITestContext context) {
         // Retrieve Board ID from suite attributes and send a request to delete the board
         ISuite suite = context.getSuite();
         String boardId = (String) suite.getAttribute("boardId");
+        if (boardId == null) {
+            throw new SkipException("No board was created");
+        }
 
         given()
                 .queryParams("key", API_KEY, "token", API_TOKEN)
@@ -223,5 +355,17 @@ public class TrelloTestRestAssured {
                 .delete(BOARD_ENDPOINT + "/" + boardId)
                 .then()
                 .statusCode(200);
+        ResourceLedger.shared().recordDeleted(ResourceLedger.BOARD, boardId);
+
+        // Read the board back to verify that it is gone
+        Assert.assertEquals(readCoalescer().readBoard(boardId).join().getStatus(), 404,
+                "Deleted board " + boardId + " still exists");
+    }
+
+    /**
+     * @return The coalescer that batches this class's verification reads.
+     */
+    private static ReadCoalescer readCoalescer() {
+        return ReadCoalescer.of(new TrelloOperations(ConfigReader.getBaseUrl(), API_KEY, API_TOKEN));
     }
 }
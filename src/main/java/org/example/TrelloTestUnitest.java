@@ -1,13 +1,29 @@
 package api.Tests.TrelloChainApiTest;
 
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.mashape.unirest.http.HttpResponse;
 import com.mashape.unirest.http.Unirest;
 import com.mashape.unirest.http.exceptions.UnirestException;
+import com.mashape.unirest.request.HttpRequestWithBody;
+import org.example.cleanup.LedgerReaperListener;
+import org.example.lifecycle.CredentialRouter;
+import org.example.lifecycle.TrelloOperations;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 import utilities.ConfigReader;
+import utilities.Credential;
+import utilities.ResourceLedger;
+import utilities.RunStateStore;
+import utilities.cassette.Cassette;
+import utilities.http.JsonFieldExtractor;
+import utilities.http.TrelloTransport;
+import utilities.metrics.InstrumentationListener;
+import utilities.metrics.LatencyRegressionGate;
+import utilities.metrics.UnirestInstrumentation;
 
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -18,34 +34,69 @@ import java.util.Map;
  *
  * Test methods use configuration properties for Trello board name, list names, API key, and token, allowing flexibility
  * and reusability. The Unirest library facilitates HTTP requests to the Trello API, and dynamic handling of Trello
- * entities' IDs is managed through configuration properties.
+ * entities' IDs is managed through a per-run {@link RunStateStore} namespace.
  *
  * The random update of a Trello card's name and color adds variability to the test scenarios. After test execution,
- * the class cleans up by deleting the created Trello cards and boards to maintain a clean test environment.
+ * the class cleans up by deleting the created Trello cards and boards to maintain a clean test environment; every
+ * create and delete is also written to the {@link ResourceLedger}, so boards left behind by a failed step are reaped.
+ * The request helpers record latency, bytes and status of every call through {@link UnirestInstrumentation}.
  *
  * When a test starts, it begins by creating a Trello board using an API request. Subsequent actions include creating lists,
  * adding cards to the lists, updating card details randomly, and finally, deleting the created boards and cards. Each test method
  * in this class is designed to execute a specific step in this sequence, and dependencies between methods ensure a logical order
  * of execution.
  */
+@Listeners({InstrumentationListener.class, LedgerReaperListener.class})
 public class TrelloTestUnitest {
 
-    private static final String BASE_URL = "https://api.trello.com/1";
+    private static final String BASE_URL = ConfigReader.getBaseUrl();
     private static final String BOARD_ENDPOINT = BASE_URL + "/boards";
     private static final String LISTS_ENDPOINT = BASE_URL + "/lists";
     private static final String CARDS_ENDPOINT = BASE_URL + "/cards";
 
-    private static final String API_KEY = ConfigReader.getProperty("APIKey");
-    private static final String API_TOKEN = ConfigReader.getProperty("APIToken");
+    // With several "TrelloCredentials", each test class sticks to the pair its name hashes to
+    private static final Credential CREDENTIAL =
+            CredentialRouter.shared().primary(TrelloTestUnitest.class.getName().hashCode()).getCredential();
+    private static final String API_KEY = CREDENTIAL.getApiKey();
+    private static final String API_TOKEN = CREDENTIAL.getApiToken();
     private static final String BOARD_NAME = ConfigReader.getProperty("boardName");
     private static final String LIST_NAME = ConfigReader.getProperty("listName");
     private static final String CARD_NAME1 = ConfigReader.getProperty("cardName1");
     private static final String CARD_NAME2 = ConfigReader.getProperty("cardName2");
 
+    // Ids created by this run, kept apart from the static configuration and from other runs in the same JVM
+    private static final RunStateStore.Namespace RUN_STATE = RunStateStore.shared().newRun("TrelloTestUnitest");
+
+    /**
+     * Routes Unirest through the shared pooled transport.
+     */
+    @BeforeClass
+    public static void setup() {
+        TrelloTransport.shared().installUnirest();
+    }
+
+    /**
+     * Prints how many connections the run opened versus reused, to confirm that pooling works, and how often requests
+     * waited for or were throttled by the rate limit.
+     */
+    @AfterClass(alwaysRun = true)
+    public static void reportTransport() {
+        System.out.println("HTTP transport: " + TrelloTransport.shared().getMetrics());
+        System.out.println("Rate limit: " + TrelloTransport.shared().getRateLimiter());
+    }
+
+    /**
+     * Fails the suite if endpoint latencies regressed against the previous runs, and records this run for later ones.
+     */
+    @AfterSuite(alwaysRun = true)
+    public static void checkLatencyRegression() {
+        LatencyRegressionGate.checkOnce();
+    }
+
     /**
      * Creates a new Trello board.
      * Uses the configuration properties for board name, API key, and token.
-     * Sets the created board's ID in the configuration for future reference.
+     * Stores the created board's ID in the run state for future reference.
      */
     @Test(priority = 1)
     public void createTrelloBoard() throws UnirestException {
@@ -54,80 +105,82 @@ public class TrelloTestUnitest {
         params.put("key", API_KEY);
         params.put("token", API_TOKEN);
 
-        HttpResponse<String> response = sendPostRequest(BOARD_ENDPOINT, params);
-        JsonObject jsonResponse = JsonParser.parseString(response.getBody()).getAsJsonObject();
-        ConfigReader.setProperty("boardId", jsonResponse.get("id").getAsString());
+        HttpResponse<InputStream> response = sendPostRequest(BOARD_ENDPOINT, params);
+        RUN_STATE.put("boardId", JsonFieldExtractor.extract(response.getBody(), "id"));
+        recordCreated(response, ResourceLedger.BOARD, RUN_STATE.get("boardId"), null);
     }
 
     /**
      * Creates a new Trello list on the previously created board.
-     * Uses the configuration properties for list name, board ID, API key, and token.
-     * Sets the created list's ID in the configuration for future reference.
+     * Uses the configuration properties for list name, API key, and token, and the board ID from the run state.
+     * Stores the created list's ID in the run state for future reference.
      */
     @Test(dependsOnMethods = "createTrelloBoard")
     public void createTrelloListOnBoard() throws UnirestException, InterruptedException {
         Map<String, Object> params = new HashMap<>();
         params.put("name", LIST_NAME);
-        params.put("idBoard", ConfigReader.getProperty("boardId"));
+        params.put("idBoard", RUN_STATE.get("boardId"));
         params.put("key", API_KEY);
         params.put("token", API_TOKEN);
 
-        HttpResponse<String> response = sendPostRequest(LISTS_ENDPOINT, params);
-        JsonObject jsonResponse = JsonParser.parseString(response.getBody()).getAsJsonObject();
-        ConfigReader.setProperty("listId", jsonResponse.get("id").getAsString());
+        HttpResponse<InputStream> response = sendPostRequest(LISTS_ENDPOINT, params);
+        RUN_STATE.put("listId", JsonFieldExtractor.extract(response.getBody(), "id"));
+        recordCreated(response, ResourceLedger.LIST, RUN_STATE.get("listId"), RUN_STATE.get("boardId"));
     }
 
     /**
      * Creates the first Trello card on the previously created list.
-     * Uses the configuration properties for card name, list ID, API key, and token.
-     * Sets the created card's ID in the configuration for future reference.
+     * Uses the configuration properties for card name, API key, and token, and the list ID from the run state.
+     * Stores the created card's ID in the run state for future reference.
      */
     @Test(dependsOnMethods = "createTrelloListOnBoard")
     public void createTrelloCard1OnList() throws UnirestException, InterruptedException {
         Map<String, Object> params = new HashMap<>();
         params.put("name", CARD_NAME1);
-        params.put("idList", ConfigReader.getProperty("listId"));
+        params.put("idList", RUN_STATE.get("listId"));
         params.put("key", API_KEY);
         params.put("token", API_TOKEN);
 
-        HttpResponse<String> response = sendPostRequest(CARDS_ENDPOINT, params);
-        JsonObject jsonResponse = JsonParser.parseString(response.getBody()).getAsJsonObject();
-        ConfigReader.setProperty("cardId1", jsonResponse.get("id").getAsString());
+        HttpResponse<InputStream> response = sendPostRequest(CARDS_ENDPOINT, params);
+        RUN_STATE.put("cardId1", JsonFieldExtractor.extract(response.getBody(), "id"));
+        recordCreated(response, ResourceLedger.CARD, RUN_STATE.get("cardId1"), RUN_STATE.get("listId"));
     }
 
     /**
      * Creates the second Trello card on the previously created list.
-     * Uses the configuration properties for card name, list ID, API key, and token.
-     * Sets the created card's ID in the configuration for future reference.
+     * Uses the configuration properties for card name, API key, and token, and the list ID from the run state.
+     * Stores the created card's ID in the run state for future reference.
      */
     @Test(dependsOnMethods = "createTrelloCard1OnList")
     public void createTrelloCard2OnList() throws UnirestException, InterruptedException {
         Map<String, Object> params = new HashMap<>();
         params.put("name", CARD_NAME2);
-        params.put("idList", ConfigReader.getProperty("listId"));
+        params.put("idList", RUN_STATE.get("listId"));
         params.put("key", API_KEY);
         params.put("token", API_TOKEN);
 
-        HttpResponse<String> response = sendPostRequest(CARDS_ENDPOINT, params);
-        JsonObject jsonResponse = JsonParser.parseString(response.getBody()).getAsJsonObject();
-        ConfigReader.setProperty("cardId2", jsonResponse.get("id").getAsString());
+        HttpResponse<InputStream> response = sendPostRequest(CARDS_ENDPOINT, params);
+        RUN_STATE.put("cardId2", JsonFieldExtractor.extract(response.getBody(), "id"));
+        recordCreated(response, ResourceLedger.CARD, RUN_STATE.get("cardId2"), RUN_STATE.get("listId"));
     }
 
     /**
      * Updates a randomly selected Trello card's name and color on the previously created list.
-     * Uses a random number to choose between the first and second card.
-     * Uses the configuration properties for card IDs, list ID, API key, and token.
+     * Uses a random number to choose between the first and second card; with a response cassette the first card is
+     * always chosen, since a cassette only holds the requests of the run that recorded it.
+     * Uses the card IDs and list ID from the run state, and the configured API key and token.
      */
     @Test(dependsOnMethods = "createTrelloCard2OnList")
     public void updateTrelloCardOnListRandomly() throws UnirestException, InterruptedException {
-        String cardID = Math.random() < 0.5 ? ConfigReader.getProperty("cardId1") : ConfigReader.getProperty("cardId2");
+        boolean firstCard = Cassette.shared() != null || Math.random() < 0.5;
+        String cardID = firstCard ? RUN_STATE.get("cardId1") : RUN_STATE.get("cardId2");
         String urlUpdated = CARDS_ENDPOINT + "/" + cardID;
 
         Map<String, Object> params = new HashMap<>();
         params.put("id", cardID);
         params.put("name", "Trello Card Updated");
         params.put("color", "blue");
-        params.put("idList", ConfigReader.getProperty("listId"));
+        params.put("idList", RUN_STATE.get("listId"));
         params.put("key", API_KEY);
         params.put("token", API_TOKEN);
 
@@ -136,67 +189,77 @@ public class TrelloTestUnitest {
 
     /**
      * Deletes the first Trello card from the previously created list.
-     * Uses the configuration property for the first card's ID, API key, and token.
+     * Uses the first card's ID from the run state, and the configured API key and token.
      */
     @Test(dependsOnMethods = "updateTrelloCardOnListRandomly")
     public void deleteTrelloCardOnList() throws UnirestException, InterruptedException {
-        String cardId = ConfigReader.getProperty("cardId1");
+        String cardId = RUN_STATE.get("cardId1");
         String urlUpdated = CARDS_ENDPOINT + "/" + cardId;
 
         Map<String, Object> params = new HashMap<>();
         params.put("key", API_KEY);
         params.put("token", API_TOKEN);
 
-        sendDeleteRequest(urlUpdated, params);
+        recordDeleted(sendDeleteRequest(urlUpdated, params), ResourceLedger.CARD, cardId);
     }
 
     /**
      * Deletes the second Trello card from the previously created list.
-     * Uses the configuration property for the second card's ID, API key, and token.
+     * Uses the second card's ID from the run state, and the configured API key and token.
      */
     @Test(dependsOnMethods = "deleteTrelloCardOnList")
     public void deleteTrelloCard2OnList() throws UnirestException, InterruptedException {
-        String cardId = ConfigReader.getProperty("cardId2");
+        String cardId = RUN_STATE.get("cardId2");
         String urlUpdated = CARDS_ENDPOINT + "/" + cardId;
 
         Map<String, Object> params = new HashMap<>();
         params.put("key", API_KEY);
         params.put("token", API_TOKEN);
 
-        sendDeleteRequest(urlUpdated, params);
+        recordDeleted(sendDeleteRequest(urlUpdated, params), ResourceLedger.CARD, cardId);
     }
 
     /**
      * Deletes the entire Trello board created in the initial step.
-     * Uses the configuration property for the board's ID, API key, and token.
+     * Uses the board's ID from the run state, and the configured API key and token.
      */
     @Test(dependsOnMethods = "deleteTrelloCard2OnList")
     public void deleteTrelloBoard() throws UnirestException, InterruptedException {
-        String boardId = ConfigReader.getProperty("boardId");
+        String boardId = RUN_STATE.get("boardId");
         String urlUpdated = BOARD_ENDPOINT + "/" + boardId;
 
         Map<String, Object> params = new HashMap<>();
         params.put("key", API_KEY);
         params.put("token", API_TOKEN);
 
-        sendDeleteRequest(urlUpdated, params);
+        recordDeleted(sendDeleteRequest(urlUpdated, params), ResourceLedger.BOARD, boardId);
+    }
+
+    private static void recordCreated(HttpResponse<?> response, String type, String id, String parentId) {
+        if (response.getStatus() == 200) {
+            ResourceLedger.shared().recordCreated(type, id, parentId, CREDENTIAL.getFingerprint());
+        }
+    }
+
+    private static void recordDeleted(HttpResponse<?> response, String type, String id) {
+        if (response.getStatus() == 200) {
+            ResourceLedger.shared().recordDeleted(type, id);
+        }
     }
 
-    private HttpResponse<String> sendPostRequest(String url, Map<String, Object> params) throws UnirestException {
-        return Unirest.post(url)
-                .queryString(params)
-                .asString();
+    private HttpResponse<InputStream> sendPostRequest(String url, Map<String, Object> params) throws UnirestException {
+        // Read as a stream so the id can be extracted without decoding the whole body into a String
+        HttpRequestWithBody request = Unirest.post(url).queryString(params);
+        return UnirestInstrumentation.send(request, request::asBinary);
     }
 
     private HttpResponse<String> sendPutRequest(String url, Map<String, Object> params) throws UnirestException {
-        return Unirest.put(url)
-                .queryString(params)
-                .asString();
+        HttpRequestWithBody request = Unirest.put(url).queryString(params);
+        return UnirestInstrumentation.send(request, request::asString);
     }
 
     private HttpResponse<String> sendDeleteRequest(String url, Map<String, Object> params) throws UnirestException {
-        return Unirest.delete(url)
-                .queryString(params)
-                .asString();
+        HttpRequestWithBody request = Unirest.delete(url).queryString(params);
+        return UnirestInstrumentation.send(request, request::asString);
     }
 }
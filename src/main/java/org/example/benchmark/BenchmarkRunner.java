@@ -0,0 +1,26 @@
+package org.example.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for the JMH benchmarks of this package. Accepts the usual JMH command line (benchmark regex, -f, -wi,
+ * ...) and always adds the GC profiler so that allocation rates (gc.alloc.rate.norm, bytes per operation) are
+ * reported next to the timings.
+ *
+ * Run with: mvn -Pjmh compile exec:exec -Djmh.args="ClientRoundTrip"
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
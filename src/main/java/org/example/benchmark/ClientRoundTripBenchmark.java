@@ -0,0 +1,200 @@
+package org.example.benchmark;
+
+import com.google.gson.JsonParser;
+import com.mashape.unirest.http.HttpResponse;
+import com.mashape.unirest.http.Unirest;
+import com.mashape.unirest.http.exceptions.UnirestException;
+import io.restassured.http.ContentType;
+import org.example.lifecycle.TrelloOperations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import utilities.http.JsonFieldExtractor;
+import utilities.stub.LatencyProfile;
+import utilities.stub.TrelloStubServer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Full round trips of the create, update and delete card calls, written exactly like the RestAssured path of
+ * {@link org.example.TrelloTestRestAssured} and the Unirest + Gson path of TrelloTestUnitest, against a loopback
+ * {@link TrelloStubServer} with no added latency. The difference between the two stacks is client-side cost.
+ *
+ * The update and delete benchmarks take a fresh card per call from {@link Cards}, which creates a queue of them before
+ * each iteration, so creating them is not measured. The board, list and cards are created with plain HTTP calls to
+ * the stub, bypassing the client-side rate limit and the resource ledger of {@link TrelloOperations}.
+ *
+ * The default settings measure the warmed-up JIT state; {@link ColdStartBenchmark} covers the first request of a
+ * fresh JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientRoundTripBenchmark {
+
+    private static final String KEY = "benchmark-key";
+    private static final String TOKEN = "benchmark-token";
+
+    // About four times the calls the faster client completes in one 2 s iteration against the stub
+    private static final int CARDS_PER_ITERATION = 20_000;
+
+    private final HttpClient setupClient = HttpClient.newHttpClient();
+    private TrelloStubServer server;
+    private String baseUrl;
+    private String listId;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException, InterruptedException {
+        server = new TrelloStubServer(0, LatencyProfile.NONE);
+        baseUrl = server.getBaseUrl();
+        String boardId = post(TrelloOperations.BOARD_ENDPOINT, "name=Benchmark+Board");
+        listId = post(TrelloOperations.LISTS_ENDPOINT, "name=Benchmark+List&idBoard=" + boardId);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        server.close();
+    }
+
+    /**
+     * Creates a resource on the stub without going through any of the measured clients.
+     *
+     * @param path  The collection path, e.g. {@link TrelloOperations#CARDS_ENDPOINT}.
+     * @param query The url-encoded query parameters besides the credentials.
+     * @return The id of the created resource.
+     */
+    private String post(String path, String query) throws IOException, InterruptedException {
+        URI uri = URI.create(baseUrl + path + "?" + query + "&key=" + KEY + "&token=" + TOKEN);
+        java.net.http.HttpResponse<byte[]> response = setupClient.send(
+                HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                java.net.http.HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("POST " + path + " returned " + response.statusCode());
+        }
+        return JsonFieldExtractor.extract(response.body(), "id");
+    }
+
+    /**
+     * Cards for the update and delete benchmarks, one per call, created before each iteration.
+     */
+    @State(Scope.Thread)
+    public static class Cards {
+
+        private final Deque<String> ids = new ArrayDeque<>();
+
+        @Setup(Level.Iteration)
+        public void createCards(ClientRoundTripBenchmark benchmark) throws IOException, InterruptedException {
+            while (ids.size() < CARDS_PER_ITERATION) {
+                ids.add(benchmark.post(TrelloOperations.CARDS_ENDPOINT,
+                        "name=Benchmark+Card&idList=" + benchmark.listId));
+            }
+        }
+
+        String next() {
+            String id = ids.poll();
+            if (id == null) {
+                throw new IllegalStateException("Ran out of cards; raise CARDS_PER_ITERATION above "
+                        + CARDS_PER_ITERATION);
+            }
+            return id;
+        }
+    }
+
+    @Benchmark
+    public String restAssuredCreate() {
+        return given()
+                .baseUri(baseUrl)
+                .contentType(ContentType.JSON)
+                .queryParams("name", "Trello Card1", "idList", listId, "key", KEY, "token", TOKEN)
+                .when()
+                .post(TrelloOperations.CARDS_ENDPOINT)
+                .then()
+                .statusCode(200)
+                .extract().jsonPath().get("id");
+    }
+
+    @Benchmark
+    public int restAssuredUpdate(Cards cards) {
+        String cardId = cards.next();
+        return given()
+                .baseUri(baseUrl)
+                .contentType(ContentType.JSON)
+                .queryParams("id", cardId, "name", "Trello Card Updated", "color", "blue", "idList", listId, "key", KEY, "token", TOKEN)
+                .when()
+                .put(TrelloOperations.CARDS_ENDPOINT + "/" + cardId)
+                .then()
+                .statusCode(200)
+                .extract().statusCode();
+    }
+
+    @Benchmark
+    public int restAssuredDelete(Cards cards) {
+        String cardId = cards.next();
+        return given()
+                .baseUri(baseUrl)
+                .queryParams("key", KEY, "token", TOKEN)
+                .when()
+                .delete(TrelloOperations.CARDS_ENDPOINT + "/" + cardId)
+                .then()
+                .statusCode(200)
+                .extract().statusCode();
+    }
+
+    @Benchmark
+    public String unirestCreate() throws UnirestException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("name", "Trello Card1");
+        params.put("idList", listId);
+        params.put("key", KEY);
+        params.put("token", TOKEN);
+
+        HttpResponse<String> response = Unirest.post(baseUrl + TrelloOperations.CARDS_ENDPOINT).queryString(params).asString();
+        return JsonParser.parseString(response.getBody()).getAsJsonObject().get("id").getAsString();
+    }
+
+    @Benchmark
+    public int unirestUpdate(Cards cards) throws UnirestException {
+        String cardId = cards.next();
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", cardId);
+        params.put("name", "Trello Card Updated");
+        params.put("color", "blue");
+        params.put("idList", listId);
+        params.put("key", KEY);
+        params.put("token", TOKEN);
+
+        return Unirest.put(baseUrl + TrelloOperations.CARDS_ENDPOINT + "/" + cardId).queryString(params).asString().getStatus();
+    }
+
+    @Benchmark
+    public int unirestDelete(Cards cards) throws UnirestException {
+        String cardId = cards.next();
+        Map<String, Object> params = new HashMap<>();
+        params.put("key", KEY);
+        params.put("token", TOKEN);
+
+        return Unirest.delete(baseUrl + TrelloOperations.CARDS_ENDPOINT + "/" + cardId).queryString(params).asString().getStatus();
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.benchmark;
+
+import com.google.gson.JsonParser;
+import com.mashape.unirest.http.Unirest;
+import com.mashape.unirest.http.exceptions.UnirestException;
+import io.restassured.http.ContentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import utilities.stub.LatencyProfile;
+import utilities.stub.TrelloStubServer;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * The very first create-board request of each client stack in a fresh JVM: class loading, static initialisation
+ * (Groovy for RestAssured, the Apache async client for Unirest) and interpreted code, which is what a single
+ * functional test run actually pays. Every fork is a new JVM and measures exactly one call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class ColdStartBenchmark {
+
+    private static final String KEY = "benchmark-key";
+    private static final String TOKEN = "benchmark-token";
+
+    private TrelloStubServer server;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        // Nothing here touches RestAssured or Unirest, so the measured call pays for loading its own stack
+        server = new TrelloStubServer(0, LatencyProfile.NONE);
+        baseUrl = server.getBaseUrl();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() {
+        server.close();
+    }
+
+    @Benchmark
+    public String restAssuredFirstCreateBoard() {
+        return given()
+                .baseUri(baseUrl)
+                .contentType(ContentType.JSON)
+                .queryParams("name", "Trello Board", "key", KEY, "token", TOKEN)
+                .when()
+                .post("/boards")
+                .then()
+                .statusCode(200)
+                .extract().jsonPath().get("id");
+    }
+
+    @Benchmark
+    public String unirestFirstCreateBoard() throws UnirestException {
+        Map<String, Object> params = new HashMap<>();
+        params.put("name", "Trello Board");
+        params.put("key", KEY);
+        params.put("token", TOKEN);
+
+        String body = Unirest.post(baseUrl + "/boards").queryString(params).asString().getBody();
+        return JsonParser.parseString(body).getAsJsonObject().get("id").getAsString();
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.benchmark;
+
+import com.google.gson.JsonParser;
+import com.mashape.unirest.http.Unirest;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.example.lifecycle.TrelloOperations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utilities.http.JsonFieldExtractor;
+import utilities.stub.LatencyProfile;
+import utilities.stub.TrelloStubServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Splits the client-side cost of one create call into its phases, without any I/O:
+ * building the request specification, serialising the query string (RestAssured's filter pipeline up to the point
+ * where it would send, Unirest's queryString(Map)), and extracting the id from a realistic board response with
+ * RestAssured's JsonPath, a Gson DOM and the streaming {@link JsonFieldExtractor}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestPhaseBenchmark {
+
+    private static final String BASE_URL = "http://127.0.0.1:1/1";
+    private static final String KEY = "benchmark-key";
+    private static final String TOKEN = "benchmark-token";
+    private static final String LIST_ID = "677fc533d9503f13a835b6e5";
+
+    private String boardBody;
+    private byte[] boardBytes;
+    private Response boardResponse;
+    private Filter cannedResponse;
+
+    /**
+     * Captures a full board response. The board is posted directly rather than through
+     * {@link TrelloOperations#createBoard(String)}, which would send it through the rate limiter and record the stub's
+     * board in the resource ledger.
+     */
+    @Setup(Level.Trial)
+    public void captureBoardResponse() throws IOException, InterruptedException {
+        try (TrelloStubServer server = new TrelloStubServer(0, LatencyProfile.NONE)) {
+            URI uri = URI.create(server.getBaseUrl() + TrelloOperations.BOARD_ENDPOINT + "?name=Trello+Board&key=" + KEY
+                    + "&token=" + TOKEN);
+            boardBody = HttpClient.newHttpClient()
+                    .send(HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                            HttpResponse.BodyHandlers.ofString())
+                    .body();
+        }
+        boardBytes = boardBody.getBytes(StandardCharsets.UTF_8);
+        boardResponse = new ResponseBuilder().setStatusCode(200).setContentType(ContentType.JSON).setBody(boardBody).build();
+        // Ends the filter chain before the request is sent, after the URI has been built
+        cannedResponse = (requestSpec, responseSpec, context) -> {
+            requestSpec.getURI();
+            return boardResponse;
+        };
+    }
+
+    @Benchmark
+    public RequestSpecification restAssuredBuildSpec() {
+        return given()
+                .baseUri(BASE_URL)
+                .contentType(ContentType.JSON)
+                .queryParams("name", "Trello Card1", "idList", LIST_ID, "key", KEY, "token", TOKEN);
+    }
+
+    @Benchmark
+    public Response restAssuredBuildAndSerialize() {
+        return given()
+                .baseUri(BASE_URL)
+                .filter(cannedResponse)
+                .contentType(ContentType.JSON)
+                .queryParams("name", "Trello Card1", "idList", LIST_ID, "key", KEY, "token", TOKEN)
+                .when()
+                .post(TrelloOperations.CARDS_ENDPOINT);
+    }
+
+    @Benchmark
+    public String unirestBuildAndSerialize() {
+        Map<String, Object> params = new HashMap<>();
+        params.put("name", "Trello Card1");
+        params.put("idList", LIST_ID);
+        params.put("key", KEY);
+        params.put("token", TOKEN);
+
+        return Unirest.post(BASE_URL + TrelloOperations.CARDS_ENDPOINT).queryString(params).getUrl();
+    }
+
+    @Benchmark
+    public String restAssuredExtractId() {
+        return boardResponse.jsonPath().get("id");
+    }
+
+    @Benchmark
+    public String gsonExtractId() {
+        return JsonParser.parseString(boardBody).getAsJsonObject().get("id").getAsString();
+    }
+
+    @Benchmark
+    public String streamingExtractId() {
+        return JsonFieldExtractor.extract(boardBytes, "id");
+    }
+
+    @Benchmark
+    public String streamingExtractIdFromStream() {
+        return JsonFieldExtractor.extract(new ByteArrayInputStream(boardBytes), "id");
+    }
+}
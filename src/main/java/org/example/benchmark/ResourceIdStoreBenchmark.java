@@ -0,0 +1,197 @@
+package org.example.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utilities.ids.ResourceRegistry;
+import utilities.stub.ObjectIds;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracking created and deleted resources with String-keyed collections (the id -> type, id -> parent and deleted-id
+ * maps the resource ledger used before) versus the primitive {@link ResourceRegistry}, on and off the heap.
+ *
+ * The "build" benchmarks replay a ledger of {@code resources} events (one board per 100 lists and cards, a tenth of
+ * the cards deleted) and count what is outstanding; every id arrives as a fresh String, as it does when a ledger line
+ * is split, so gc.alloc.rate.norm shows what each structure keeps plus what it throws away, and gc.time shows what
+ * keeping it costs the collector. The "lookup" benchmarks check one random id against a filled structure. The setup
+ * prints how much heap each filled structure retains.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceIdStoreBenchmark {
+
+    @Param({"100000"})
+    public int resources;
+
+    private char[][] ids;
+    private int[] parents;
+    private boolean[] deleted;
+    private StringCollections strings;
+    private ResourceRegistry compact;
+    private ResourceRegistry compactOffHeap;
+
+    @Setup(Level.Trial)
+    public void createLedger() {
+        ids = new char[resources][];
+        parents = new int[resources];
+        deleted = new boolean[resources];
+        int board = -1;
+        int list = -1;
+        for (int i = 0; i < resources; i++) {
+            ids[i] = ObjectIds.next().toCharArray();
+            if (i % 100 == 0) {
+                board = i;
+                parents[i] = -1;
+            } else if (i % 10 == 1) {
+                list = i;
+                parents[i] = board;
+            } else {
+                parents[i] = list;
+                deleted[i] = i % 10 == 5;
+            }
+        }
+        long before = usedHeap();
+        strings = buildStrings();
+        long afterStrings = usedHeap();
+        compact = buildCompact(false);
+        long afterCompact = usedHeap();
+        compactOffHeap = buildCompact(true);
+        long afterOffHeap = usedHeap();
+        System.out.printf("%nRetained heap per resource: String collections %.0f B, registry %.0f B, "
+                        + "off-heap registry %.0f B (+ %.0f B native)%n", (afterStrings - before) / (double) resources,
+                (afterCompact - afterStrings) / (double) resources, (afterOffHeap - afterCompact) / (double) resources,
+                compactOffHeap.getStorageBytes() / (double) resources);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Benchmark
+    public int buildStringCollections() {
+        return buildStrings().countOutstanding();
+    }
+
+    @Benchmark
+    public int buildCompactRegistry() {
+        return count(buildCompact(false));
+    }
+
+    @Benchmark
+    public int buildCompactRegistryOffHeap() {
+        return count(buildCompact(true));
+    }
+
+    @Benchmark
+    public boolean lookupStringCollections() {
+        return strings.isOutstanding(new String(ids[ThreadLocalRandom.current().nextInt(resources)]));
+    }
+
+    @Benchmark
+    public boolean lookupCompactRegistry() {
+        return compact.isOutstanding(new String(ids[ThreadLocalRandom.current().nextInt(resources)]));
+    }
+
+    @Benchmark
+    public boolean lookupCompactRegistryOffHeap() {
+        return compactOffHeap.isOutstanding(new String(ids[ThreadLocalRandom.current().nextInt(resources)]));
+    }
+
+    private StringCollections buildStrings() {
+        StringCollections collections = new StringCollections();
+        for (int i = 0; i < resources; i++) {
+            String id = new String(ids[i]);
+            collections.types.put(id, type(i));
+            if (parents[i] >= 0) {
+                collections.parents.put(id, new String(ids[parents[i]]));
+            }
+        }
+        for (int i = 0; i < resources; i++) {
+            if (deleted[i]) {
+                collections.deleted.add(new String(ids[i]));
+            }
+        }
+        return collections;
+    }
+
+    private ResourceRegistry buildCompact(boolean offHeap) {
+        // Sized up front like ResourceLedger.outstanding does from the ledger's file size
+        ResourceRegistry registry = new ResourceRegistry(resources, offHeap);
+        for (int i = 0; i < resources; i++) {
+            registry.recordCreated(type(i), new String(ids[i]), parents[i] < 0 ? null : new String(ids[parents[i]]));
+        }
+        for (int i = 0; i < resources; i++) {
+            if (deleted[i]) {
+                registry.recordDeleted(new String(ids[i]));
+            }
+        }
+        return registry;
+    }
+
+    private static int count(ResourceRegistry registry) {
+        int[] outstanding = new int[1];
+        registry.forEachOutstanding((id, type) -> outstanding[0]++);
+        return outstanding[0];
+    }
+
+    private String type(int i) {
+        return parents[i] < 0 ? "board" : i % 10 == 1 ? "list" : "card";
+    }
+
+    /**
+     * The String-keyed state the resource ledger kept before.
+     */
+    private static final class StringCollections {
+
+        final Map<String, String> types = new LinkedHashMap<>();
+        final Map<String, String> parents = new HashMap<>();
+        final Set<String> deleted = new HashSet<>();
+
+        boolean isOutstanding(String id) {
+            if (!types.containsKey(id)) {
+                return false;
+            }
+            for (String current = id; current != null; current = parents.get(current)) {
+                if (deleted.contains(current)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int countOutstanding() {
+            int outstanding = 0;
+            for (String id : types.keySet()) {
+                if (isOutstanding(id)) {
+                    outstanding++;
+                }
+            }
+            return outstanding;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.benchmark;
+
+import com.google.gson.JsonParser;
+import org.example.lifecycle.TrelloOperations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utilities.http.JsonFieldExtractor;
+import utilities.http.ResponseProjection;
+import utilities.stub.LatencyProfile;
+import utilities.stub.TrelloStubServer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * What response projection and gzip save per verification read: the bytes on the wire and the time to decode the field
+ * the caller checks.
+ *
+ * The setup creates a board and a list on the stub server, reads each of them back four times (whole or cut down to
+ * the read's {@link ResponseProjection}, with or without "Accept-Encoding: gzip"), keeps the raw bodies and prints their
+ * sizes. Trello documents "fields" for its GET routes only, so creates are not projected and not measured here. The
+ * benchmarks then decode the checked field ("id" of a board, "idBoard" of a list) from the chosen entity's body: with
+ * a Gson DOM (what JsonPath-style extraction costs) and with the streaming {@link JsonFieldExtractor} the tests use,
+ * from the full body, the full body as it arrives gzip-compressed, and the projected body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseProjectionBenchmark {
+
+    private static final String KEY = "benchmark-key";
+    private static final String TOKEN = "benchmark-token";
+
+    @Param({"board", "list"})
+    public String entity;
+
+    private String field;
+    private byte[] full;
+    private byte[] fullOnWire;
+    private boolean fullGzipped;
+    private byte[] projected;
+
+    @Setup(Level.Trial)
+    public void captureResponses() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        try (TrelloStubServer server = new TrelloStubServer(0, LatencyProfile.NONE)) {
+            String boardId = JsonFieldExtractor.extract(send(client, "POST", server.getBaseUrl()
+                    + TrelloOperations.BOARD_ENDPOINT, Map.of("name", "Trello Board"), null, false).bytes, "id");
+            String listId = JsonFieldExtractor.extract(send(client, "POST", server.getBaseUrl()
+                            + TrelloOperations.LISTS_ENDPOINT, Map.of("name", "Trello List", "idBoard", boardId), null,
+                    false).bytes, "id");
+            String[] urls = {server.getBaseUrl() + TrelloOperations.BOARD_ENDPOINT + "/" + boardId,
+                    server.getBaseUrl() + TrelloOperations.LISTS_ENDPOINT + "/" + listId};
+            ResponseProjection[] projections = {TrelloOperations.READ_BOARD, TrelloOperations.READ_LIST};
+            Body[][] bodies = new Body[2][];
+            for (int i = 0; i < 2; i++) {
+                bodies[i] = new Body[]{
+                        send(client, "GET", urls[i], Map.of(), null, false),
+                        send(client, "GET", urls[i], Map.of(), null, true),
+                        send(client, "GET", urls[i], Map.of(), projections[i], false),
+                        send(client, "GET", urls[i], Map.of(), projections[i], true)};
+            }
+            System.out.printf("%nBytes on the wire per read response (full, full gzip, projected, projected gzip):%n");
+            String[] names = {"board", "list"};
+            for (int i = 0; i < 2; i++) {
+                System.out.printf("  %-5s %5d %5d %5d %5d%n", names[i], bodies[i][0].bytes.length,
+                        bodies[i][1].bytes.length, bodies[i][2].bytes.length, bodies[i][3].bytes.length);
+            }
+            int chosen = "board".equals(entity) ? 0 : 1;
+            field = chosen == 0 ? "id" : "idBoard";
+            full = bodies[chosen][0].bytes;
+            fullOnWire = bodies[chosen][1].bytes;
+            fullGzipped = bodies[chosen][1].gzipped;
+            projected = bodies[chosen][2].bytes;
+        }
+    }
+
+    private static Body send(HttpClient client, String method, String url, Map<String, String> params,
+                             ResponseProjection projection, boolean gzip) throws IOException, InterruptedException {
+        StringBuilder uri = new StringBuilder(url).append("?key=").append(KEY).append("&token=").append(TOKEN);
+        params.forEach((key, value) -> uri.append('&').append(key).append('=')
+                .append(URLEncoder.encode(value, StandardCharsets.UTF_8)));
+        if (projection != null) {
+            projection.params().forEach((key, value) -> uri.append('&').append(key).append('=')
+                    .append(URLEncoder.encode(value, StandardCharsets.UTF_8)));
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(uri.toString()))
+                .method(method, HttpRequest.BodyPublishers.noBody());
+        if (gzip) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        return new Body(response.body(), response.headers().firstValue("Content-Encoding").isPresent());
+    }
+
+    @Benchmark
+    public String fullGson() {
+        return JsonParser.parseString(new String(full, StandardCharsets.UTF_8)).getAsJsonObject().get(field).getAsString();
+    }
+
+    @Benchmark
+    public String projectedGson() {
+        return JsonParser.parseString(new String(projected, StandardCharsets.UTF_8)).getAsJsonObject().get(field)
+                .getAsString();
+    }
+
+    @Benchmark
+    public String fullStreaming() {
+        return JsonFieldExtractor.extract(full, field);
+    }
+
+    @Benchmark
+    public String fullGzipStreaming() throws IOException {
+        InputStream body = new ByteArrayInputStream(fullOnWire);
+        return JsonFieldExtractor.extract(fullGzipped ? new GZIPInputStream(body) : body, field);
+    }
+
+    @Benchmark
+    public String projectedStreaming() {
+        return JsonFieldExtractor.extract(projected, field);
+    }
+
+    /**
+     * A response body as it came over the wire.
+     */
+    private static final class Body {
+        final byte[] bytes;
+        final boolean gzipped;
+
+        Body(byte[] bytes, boolean gzipped) {
+            this.bytes = bytes;
+            this.gzipped = gzipped;
+        }
+    }
+}
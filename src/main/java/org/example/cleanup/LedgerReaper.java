@@ -0,0 +1,211 @@
+package org.example.cleanup;
+
+import io.restassured.response.Response;
+import org.example.lifecycle.TrelloOperations;
+import utilities.ConfigReader;
+import utilities.Credential;
+import utilities.ResourceLedger;
+import utilities.VirtualThreads;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deletes the boards that {@link ResourceLedger} files list as created but never deleted.
+ *
+ * Deleting a board also deletes its lists and cards, so only boards are sent to the API. Deletes run in parallel
+ * with at most "ReaperConcurrency" in flight; 429 and 5xx responses are retried by the transport's
+ * {@link utilities.http.TrelloRateLimiter} ("RateLimitMaxRetries"), and 404 means the board is already gone. Every
+ * board that is gone afterwards is appended as deleted to the ledger it was listed in, not to this process's own
+ * ledger, and ledger files with nothing outstanding are removed. Each board is deleted with the credential pair that
+ * created it, as recorded in the ledger; boards recorded without one, or created by a pair the reaper does not know,
+ * are deleted with the default pair.
+ *
+ * Ledgers whose writing process is still alive are skipped unless they are passed in explicitly, because their
+ * boards may still be in use.
+ */
+public class LedgerReaper {
+
+    private final TrelloOperations operations;
+    private final Map<String, TrelloOperations> operationsByFingerprint = new HashMap<>();
+    private final int concurrency;
+
+    public LedgerReaper(TrelloOperations operations, int concurrency) {
+        this(operations, List.of(), concurrency);
+    }
+
+    /**
+     * @param operations  The operations used for boards without a known creator.
+     * @param others      Operations for further credential pairs, used for the boards those pairs created.
+     * @param concurrency How many deletes are in flight at most.
+     */
+    public LedgerReaper(TrelloOperations operations, List<TrelloOperations> others, int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Reaper concurrency must be positive: " + concurrency);
+        }
+        this.operations = operations;
+        this.concurrency = concurrency;
+        operationsByFingerprint.put(operations.getFingerprint(), operations);
+        others.forEach(other -> operationsByFingerprint.putIfAbsent(other.getFingerprint(), other));
+    }
+
+    /**
+     * Builds a reaper from "ReaperConcurrency" that knows every configured credential pair.
+     *
+     * @param operations The operations used to delete boards without a known creator.
+     * @return The reaper.
+     */
+    public static LedgerReaper fromConfig(TrelloOperations operations) {
+        List<TrelloOperations> others = new ArrayList<>();
+        for (Credential credential : ConfigReader.getCredentials()) {
+            others.add(new TrelloOperations(operations.getBaseUrl(), credential));
+        }
+        return new LedgerReaper(operations, others, (int) ConfigReader.getLong("ReaperConcurrency", 8));
+    }
+
+    /**
+     * Reaps every ledger in the directory whose writing process is no longer running.
+     *
+     * @param dir The ledger directory.
+     * @return What was reclaimed.
+     * @throws IOException If a ledger cannot be read.
+     */
+    public Report reapAbandoned(Path dir) throws IOException {
+        List<Path> abandoned = new ArrayList<>();
+        for (Path ledger : ResourceLedger.listLedgers(dir)) {
+            if (!ResourceLedger.isOwnerAlive(ledger)) {
+                abandoned.add(ledger);
+            }
+        }
+        return reap(abandoned);
+    }
+
+    /**
+     * Reaps the given ledgers, regardless of whether their writers are still running.
+     *
+     * @param ledgers The ledger files.
+     * @return What was reclaimed.
+     * @throws IOException If a ledger cannot be read.
+     */
+    public Report reap(List<Path> ledgers) throws IOException {
+        Report report = new Report();
+        long start = System.nanoTime();
+        Semaphore inFlight = new Semaphore(concurrency);
+        ExecutorService executor = VirtualThreads.newExecutor("reaper", concurrency);
+        try {
+            for (Path ledgerFile : ledgers) {
+                List<String> boards = new ArrayList<>();
+                for (Map.Entry<String, String> entry : ResourceLedger.outstanding(ledgerFile).entrySet()) {
+                    if (ResourceLedger.BOARD.equals(entry.getValue())) {
+                        boards.add(entry.getKey());
+                    }
+                }
+                // This process's own ledger stays open for writing and is removed on shutdown instead
+                ResourceLedger current = ResourceLedger.sharedIfWritingTo(ledgerFile);
+                if (boards.isEmpty()) {
+                    if (current == null) {
+                        deleteIfSettled(ledgerFile);
+                    }
+                    continue;
+                }
+
+                ResourceLedger ledger = current != null ? current : new ResourceLedger(ledgerFile, false);
+                Map<String, String> creators = ResourceLedger.creators(ledgerFile);
+                List<CompletableFuture<Void>> deletes = new ArrayList<>();
+                for (String boardId : boards) {
+                    TrelloOperations creator = operationsByFingerprint.getOrDefault(creators.get(boardId), operations);
+                    inFlight.acquireUninterruptibly();
+                    deletes.add(CompletableFuture.runAsync(() -> {
+                        try {
+                            deleteBoard(creator, boardId, ledger, report);
+                        } finally {
+                            inFlight.release();
+                        }
+                    }, executor));
+                }
+                CompletableFuture.allOf(deletes.toArray(new CompletableFuture<?>[0])).join();
+                if (current == null) {
+                    ledger.close();
+                    deleteIfSettled(ledgerFile);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private static void deleteBoard(TrelloOperations operations, String boardId, ResourceLedger ledger, Report report) {
+        int status;
+        try {
+            // Throttling and server errors have already been retried by the transport
+            Response response = operations.deleteBoardUnrecorded(boardId);
+            status = response.statusCode();
+        } catch (RuntimeException e) {
+            status = -1;
+        }
+        if (status == 200 || status == 404) {
+            ledger.recordDeleted(ResourceLedger.BOARD, boardId);
+            (status == 200 ? report.reclaimed : report.alreadyGone).increment();
+        } else {
+            report.failed.increment();
+        }
+    }
+
+    private static void deleteIfSettled(Path ledgerFile) throws IOException {
+        if (ResourceLedger.outstanding(ledgerFile).values().stream().noneMatch(ResourceLedger.BOARD::equals)) {
+            Files.deleteIfExists(ledgerFile);
+        }
+    }
+
+    /**
+     * Counts of one reaper pass.
+     */
+    public static class Report {
+
+        private final LongAdder reclaimed = new LongAdder();
+        private final LongAdder alreadyGone = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private long elapsedNanos;
+
+        public long getReclaimed() {
+            return reclaimed.sum();
+        }
+
+        public long getAlreadyGone() {
+            return alreadyGone.sum();
+        }
+
+        public long getFailed() {
+            return failed.sum();
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("reclaimed %d boards (%d already gone, %d failed) in %.1f ms",
+                    getReclaimed(), getAlreadyGone(), getFailed(), elapsedNanos / 1e6);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        TrelloOperations operations = new TrelloOperations(ConfigReader.getBaseUrl(),
+                ConfigReader.getProperty("APIKey"), ConfigReader.getProperty("APIToken"));
+        Path dir = Paths.get(ConfigReader.getProperty("LedgerDir", "ledger"));
+        System.out.println("Reaper: " + fromConfig(operations).reapAbandoned(dir));
+    }
+}
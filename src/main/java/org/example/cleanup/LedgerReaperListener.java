@@ -0,0 +1,31 @@
+package org.example.cleanup;
+
+import org.example.lifecycle.TrelloOperations;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import utilities.ConfigReader;
+import utilities.ResourceLedger;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * TestNG listener that deletes whatever boards the run created but did not delete, e.g. because a step failed and the
+ * rest were skipped. The ledger is shared by every test class of the run, so this waits for the suite to end, when
+ * none of them is in use.
+ *
+ * Register it with {@code @Listeners(LedgerReaperListener.class)} on a test class.
+ */
+public class LedgerReaperListener implements ISuiteListener {
+
+    @Override
+    public void onFinish(ISuite suite) {
+        TrelloOperations operations = new TrelloOperations(ConfigReader.getBaseUrl(),
+                ConfigReader.getProperty("APIKey"), ConfigReader.getProperty("APIToken"));
+        try {
+            System.out.println("Reaper: " + LedgerReaper.fromConfig(operations).reap(List.of(ResourceLedger.shared().getFile())));
+        } catch (IOException e) {
+            System.out.println("Error while reaping the resource ledger: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.lifecycle;
+
+import utilities.ConfigReader;
+import utilities.http.JsonFieldExtractor;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Runs the board -> list -> cards -> cleanup lifecycle as a {@link StepGraph} on the non-blocking
+ * {@link AsyncTrelloClient}.
+ *
+ * Both cards are created at the same time once the list exists, the card that is not updated is deleted as soon as
+ * it exists, and the board is deleted once both card deletes are done. That shortens the critical path from the 8
+ * sequential round trips of the dependsOnMethods chain to 6. Running the class compares the pipelined mode with the
+ * serial mode over "AsyncLifecycles" lifecycles each.
+ */
+public class AsyncLifecycleRunner {
+
+    private final AsyncTrelloClient client;
+    private final String boardName;
+    private final String listName;
+    private final String cardName1;
+    private final String cardName2;
+
+    public AsyncLifecycleRunner(AsyncTrelloClient client, String boardName, String listName, String cardName1, String cardName2) {
+        this.client = client;
+        this.boardName = boardName;
+        this.listName = listName;
+        this.cardName1 = cardName1;
+        this.cardName2 = cardName2;
+    }
+
+    /**
+     * Builds the dependency graph for one lifecycle. Which card gets updated is decided here, so the other card's
+     * delete does not have to wait for the update.
+     *
+     * @param context Receives the created ids, so a failed lifecycle can still be cleaned up.
+     * @return The graph.
+     */
+    public StepGraph buildGraph(LifecycleContext context) {
+        boolean updateFirst = ThreadLocalRandom.current().nextBoolean();
+        String updated = updateFirst ? "createCard1" : "createCard2";
+        String untouched = updateFirst ? "createCard2" : "createCard1";
+
+        return new StepGraph()
+                .add("createBoard", r -> client.createBoard(boardName)
+                        .thenApply(body -> store(body, context::setBoardId)))
+                .add("createList", r -> client.createList(r.get("createBoard"), listName)
+                        .thenApply(body -> store(body, context::setListId)), "createBoard")
+                .add("createCard1", r -> client.createCard(r.get("createList"), cardName1)
+                        .thenApply(body -> store(body, context::setCardId1)), "createList")
+                .add("createCard2", r -> client.createCard(r.get("createList"), cardName2)
+                        .thenApply(body -> store(body, context::setCardId2)), "createList")
+                .add("updateCard", r -> done(client.updateCard(r.get(updated), r.get("createList"), "Trello Card Updated", "blue")),
+                        updated)
+                .add("deleteUpdatedCard", r -> done(client.deleteCard(r.get(updated))), "updateCard")
+                .add("deleteOtherCard", r -> done(client.deleteCard(r.get(untouched))), untouched)
+                .add("deleteBoard", r -> done(client.deleteBoard(r.get("createBoard"))), "deleteUpdatedCard", "deleteOtherCard");
+    }
+
+    /**
+     * Runs one lifecycle.
+     *
+     * @param context   The chain's context.
+     * @param pipelined true to run independent steps concurrently, false to run every step after the previous one.
+     * @return A future that completes with the context once the lifecycle and any cleanup are done.
+     */
+    public CompletableFuture<LifecycleContext> run(LifecycleContext context, boolean pipelined) {
+        StepGraph graph = buildGraph(context);
+        context.markStarted();
+        CompletableFuture<Map<String, String>> execution = pipelined ? graph.executePipelined(context) : graph.executeSerial(context);
+        return execution.handle((results, failure) -> results)
+                .thenCompose(results -> {
+                    // Delete the board of a failed lifecycle so it does not leak
+                    if (results == null && context.getFailure() != null && context.getBoardId() != null) {
+                        return client.deleteBoard(context.getBoardId()).handle((ignored, failure) -> null);
+                    }
+                    return CompletableFuture.completedFuture(null);
+                })
+                .thenApply(ignored -> {
+                    context.markFinished();
+                    return context;
+                });
+    }
+
+    private static CompletableFuture<String> done(CompletableFuture<byte[]> call) {
+        return call.thenApply(body -> null);
+    }
+
+    private static String store(byte[] body, Consumer<String> setter) {
+        String id = JsonFieldExtractor.extract(body, "id");
+        setter.accept(id);
+        return id;
+    }
+
+    public static void main(String[] args) {
+        AsyncTrelloClient client = new AsyncTrelloClient(ConfigReader.getBaseUrl(),
+                ConfigReader.getProperty("APIKey"), ConfigReader.getProperty("APIToken"));
+        AsyncLifecycleRunner runner = new AsyncLifecycleRunner(client, ConfigReader.getProperty("boardName"),
+                ConfigReader.getProperty("listName"), ConfigReader.getProperty("cardName1"), ConfigReader.getProperty("cardName2"));
+        int lifecycles = (int) ConfigReader.getLong("AsyncLifecycles", 20);
+        if (lifecycles <= 0) {
+            throw new IllegalArgumentException("Async lifecycles must be positive: " + lifecycles);
+        }
+
+        StepGraph graph = runner.buildGraph(new LifecycleContext(-1));
+        System.out.printf("%d steps, critical path of %d round trips%n", graph.stepNames().size(), graph.criticalPathLength());
+
+        // One warm-up lifecycle per mode so connection setup and class loading do not skew the first sample
+        runner.run(new LifecycleContext(-1), false).join();
+        runner.run(new LifecycleContext(-1), true).join();
+
+        double serial = measure(runner, lifecycles, false);
+        double pipelined = measure(runner, lifecycles, true);
+        System.out.printf("serial:    median %.1f ms per lifecycle%n", serial);
+        System.out.printf("pipelined: median %.1f ms per lifecycle%n", pipelined);
+        System.out.printf("difference: %.1f ms (%.0f%% faster)%n", serial - pipelined, (1 - pipelined / serial) * 100);
+    }
+
+    private static double measure(AsyncLifecycleRunner runner, int lifecycles, boolean pipelined) {
+        double[] millis = new double[lifecycles];
+        for (int i = 0; i < lifecycles; i++) {
+            LifecycleContext context = runner.run(new LifecycleContext(i), pipelined).join();
+            if (!context.isSuccessful()) {
+                throw new CompletionException(context.getFailure());
+            }
+            millis[i] = context.getElapsedNanos() / 1e6;
+        }
+        Arrays.sort(millis);
+        return millis[lifecycles / 2];
+    }
+}
@@ -0,0 +1,159 @@
+package org.example.lifecycle;
+
+import utilities.ConfigReader;
+import utilities.Credential;
+import utilities.ResourceLedger;
+import utilities.http.JsonFieldExtractor;
+import utilities.http.TokenBucket;
+import utilities.http.TrelloRateLimiter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Non-blocking counterpart of {@link TrelloOperations} built on {@link java.net.http.HttpClient}.
+ *
+ * Every call returns immediately with a future that completes with the raw response body, or completes exceptionally
+ * if the status is not 200, so calls can be composed into a pipeline without holding a thread per request.
+ * Like {@link TrelloOperations}, successful creates and deletes are written to the {@link ResourceLedger}, and
+ * requests are paced and retried by the shared {@link TrelloRateLimiter}; waiting for a slot delays the send
+ * instead of blocking a thread. Unless "HttpCompression=false", responses are asked for gzip-compressed.
+ */
+public class AsyncTrelloClient {
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final String apiKey;
+    private final String apiToken;
+    private final TrelloRateLimiter rateLimiter = TrelloRateLimiter.shared();
+    private final boolean compression =
+            Boolean.parseBoolean(ConfigReader.getProperty("HttpCompression", "true").trim());
+
+    public AsyncTrelloClient(String baseUrl, String apiKey, String apiToken) {
+        this(HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build(), baseUrl, apiKey, apiToken);
+    }
+
+    public AsyncTrelloClient(HttpClient httpClient, String baseUrl, String apiKey, String apiToken) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.apiToken = apiToken;
+    }
+
+    public CompletableFuture<byte[]> createBoard(String name) {
+        return send("POST", TrelloOperations.BOARD_ENDPOINT, "name", name)
+                .thenApply(body -> recordCreated(ResourceLedger.BOARD, null, body));
+    }
+
+    public CompletableFuture<byte[]> createList(String boardId, String name) {
+        return send("POST", TrelloOperations.LISTS_ENDPOINT, "name", name, "idBoard", boardId)
+                .thenApply(body -> recordCreated(ResourceLedger.LIST, boardId, body));
+    }
+
+    public CompletableFuture<byte[]> createCard(String listId, String name) {
+        return send("POST", TrelloOperations.CARDS_ENDPOINT, "name", name, "idList", listId)
+                .thenApply(body -> recordCreated(ResourceLedger.CARD, listId, body));
+    }
+
+    public CompletableFuture<byte[]> updateCard(String cardId, String listId, String name, String color) {
+        return send("PUT", TrelloOperations.CARDS_ENDPOINT + "/" + cardId,
+                "id", cardId, "name", name, "color", color, "idList", listId);
+    }
+
+    public CompletableFuture<byte[]> deleteCard(String cardId) {
+        return send("DELETE", TrelloOperations.CARDS_ENDPOINT + "/" + cardId)
+                .thenApply(body -> recordDeleted(ResourceLedger.CARD, cardId, body));
+    }
+
+    public CompletableFuture<byte[]> deleteBoard(String boardId) {
+        return send("DELETE", TrelloOperations.BOARD_ENDPOINT + "/" + boardId)
+                .thenApply(body -> recordDeleted(ResourceLedger.BOARD, boardId, body));
+    }
+
+    private byte[] recordCreated(String type, String parentId, byte[] body) {
+        ResourceLedger.shared().recordCreated(type, JsonFieldExtractor.extract(body, "id"), parentId,
+                Credential.fingerprint(apiKey, apiToken));
+        return body;
+    }
+
+    private static byte[] recordDeleted(String type, String id, byte[] body) {
+        ResourceLedger.shared().recordDeleted(type, id);
+        return body;
+    }
+
+    /**
+     * Sends one request.
+     *
+     * @param method        The HTTP method.
+     * @param path          The path below the base URL.
+     * @param keysAndValues Query parameters as alternating names and values; key and token are added.
+     * @return A future with the (decompressed) response body.
+     */
+    private CompletableFuture<byte[]> send(String method, String path, String... keysAndValues) {
+        StringBuilder uri = new StringBuilder(baseUrl).append(path).append('?');
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            appendParam(uri, keysAndValues[i], keysAndValues[i + 1]).append('&');
+        }
+        appendParam(uri, "key", apiKey).append('&');
+        appendParam(uri, "token", apiToken);
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(uri.toString()))
+                .method(method, HttpRequest.BodyPublishers.noBody());
+        if (compression) {
+            // java.net.http does not negotiate compression itself
+            request.header("Accept-Encoding", "gzip");
+        }
+        return send(request.build(), rateLimiter.bucket(apiKey, apiToken), 0);
+    }
+
+    private CompletableFuture<byte[]> send(HttpRequest request, TokenBucket bucket, int attempt) {
+        long wait = bucket == null ? 0 : bucket.reserve();
+        CompletableFuture<HttpResponse<byte[]>> sent = wait == 0
+                ? httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                : CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS))
+                        .thenCompose(ignored -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()));
+        return sent.thenCompose(response -> {
+            String method = request.method();
+            long retryDelay = rateLimiter.onResponse(bucket, method, response.statusCode(),
+                    response.headers().firstValue("Retry-After").orElse(null), attempt);
+            if (retryDelay >= 0) {
+                return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(retryDelay, TimeUnit.NANOSECONDS))
+                        .thenCompose(ignored -> send(request, bucket, attempt + 1));
+            }
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException(method + " " + request.uri().getPath() + ": expected status 200 but was "
+                        + response.statusCode());
+            }
+            return CompletableFuture.completedFuture(decode(response));
+        });
+    }
+
+    private static byte[] decode(HttpResponse<byte[]> response) {
+        if (!"gzip".equalsIgnoreCase(response.headers().firstValue("Content-Encoding").orElse(""))) {
+            return response.body();
+        }
+        try (InputStream body = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            return body.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decompress " + response.request().uri().getPath(), e);
+        }
+    }
+
+    private static StringBuilder appendParam(StringBuilder uri, String key, String value) {
+        return uri.append(URLEncoder.encode(key, StandardCharsets.UTF_8))
+                .append('=')
+                .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+    }
+}
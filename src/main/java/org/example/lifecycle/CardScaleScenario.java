@@ -0,0 +1,248 @@
+package org.example.lifecycle;
+
+import io.restassured.response.Response;
+import utilities.ConfigReader;
+import utilities.VirtualThreads;
+import utilities.http.JsonFieldExtractor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.BitSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills one list with many cards and checks that the list really holds all of them.
+ *
+ * Cards are named "prefix 0" to "prefix N-1" and created in batches of "ScaleCardBatchSize"; "ScaleCardConcurrency"
+ * workers each take the next batch until none are left, so at most that many creates are in flight. Verification
+ * pages through GET /lists/{id}/cards ("ScaleCardPageSize" cards per page, paged with before=<oldest id>) and feeds
+ * each page through {@link JsonFieldExtractor#forEachElement}, which reads id and name per card without building the
+ * page as a tree. Every name sets its index in a bitmap of N bits, so missing and duplicate cards are found without
+ * keeping any card around; cards with other names (e.g. the test's own cards) are counted but not checked.
+ */
+public class CardScaleScenario {
+
+    private final TrelloOperations operations;
+    private final int concurrency;
+    private final int batchSize;
+    private final int pageSize;
+
+    public CardScaleScenario(TrelloOperations operations, int concurrency, int batchSize, int pageSize) {
+        this.operations = operations;
+        this.concurrency = concurrency;
+        this.batchSize = batchSize;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Creates a scenario from "ScaleCardConcurrency" (default 8), "ScaleCardBatchSize" (default 100) and
+     * "ScaleCardPageSize" (default 1000, Trello's maximum).
+     */
+    public static CardScaleScenario fromConfig(TrelloOperations operations) {
+        return new CardScaleScenario(operations,
+                (int) ConfigReader.getLong("ScaleCardConcurrency", 8),
+                (int) ConfigReader.getLong("ScaleCardBatchSize", 100),
+                (int) ConfigReader.getLong("ScaleCardPageSize", 1000));
+    }
+
+    /**
+     * Creates the cards and verifies them.
+     *
+     * @param listId The list to fill.
+     * @param prefix The name prefix; cards are named prefix + " " + index.
+     * @param count  How many cards to create.
+     * @return The outcome of both phases.
+     */
+    public Result run(String listId, String prefix, int count) {
+        long start = System.nanoTime();
+        int failed = create(listId, prefix, count);
+        long created = System.nanoTime();
+        Verification verification = verify(listId, prefix, count);
+        return new Result(count, failed, created - start, verification, System.nanoTime() - created);
+    }
+
+    private int create(String listId, String prefix, int count) {
+        int batches = (count + batchSize - 1) / batchSize;
+        AtomicInteger nextBatch = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = VirtualThreads.newExecutor("scale-cards", concurrency);
+        try {
+            CompletableFuture<?>[] workers = new CompletableFuture<?>[Math.min(concurrency, batches)];
+            for (int w = 0; w < workers.length; w++) {
+                workers[w] = CompletableFuture.runAsync(() -> {
+                    int batch;
+                    while ((batch = nextBatch.getAndIncrement()) < batches) {
+                        for (int i = batch * batchSize; i < Math.min(count, (batch + 1) * batchSize); i++) {
+                            try {
+                                if (operations.createCard(listId, prefix + " " + i).statusCode() != 200) {
+                                    failed.incrementAndGet();
+                                }
+                            } catch (RuntimeException e) {
+                                failed.incrementAndGet();
+                            }
+                        }
+                    }
+                }, executor);
+            }
+            CompletableFuture.allOf(workers).join();
+        } finally {
+            executor.shutdown();
+        }
+        return failed.get();
+    }
+
+    private Verification verify(String listId, String prefix, int count) {
+        Verification verification = new Verification(prefix + " ", count);
+        String[] fields = {"id", "name"};
+        String before = null;
+        while (true) {
+            Response page = operations.getListCards(listId, pageSize, before);
+            if (page.statusCode() != 200) {
+                throw new IllegalStateException("Reading cards of list " + listId + " returned " + page.statusCode());
+            }
+            verification.startPage();
+            try (InputStream body = page.asInputStream()) {
+                verification.bytes += JsonFieldExtractor.forEachElement(body, fields, verification::accept);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (verification.pageCards < pageSize) {
+                return verification;
+            }
+            before = verification.oldestId;
+        }
+    }
+
+    /**
+     * What the pages contained so far; holds one bit per expected card and nothing per card read.
+     */
+    private static final class Verification {
+
+        private final String prefix;
+        private final int count;
+        private final BitSet seen;
+        private long pages;
+        private long bytes;
+        private long others;
+        private long duplicates;
+        private int pageCards;
+        private String oldestId;
+
+        Verification(String prefix, int count) {
+            this.prefix = prefix;
+            this.count = count;
+            this.seen = new BitSet(count);
+        }
+
+        void startPage() {
+            pages++;
+            pageCards = 0;
+            oldestId = null;
+        }
+
+        void accept(String[] card) {
+            pageCards++;
+            String id = card[0];
+            // Ids of the same length compare by creation time, like the API's paging
+            if (id != null && (oldestId == null || id.compareTo(oldestId) < 0)) {
+                oldestId = id;
+            }
+            int index = indexOf(card[1]);
+            if (index < 0) {
+                others++;
+            } else if (seen.get(index)) {
+                duplicates++;
+            } else {
+                seen.set(index);
+            }
+        }
+
+        private int indexOf(String name) {
+            if (name == null || !name.startsWith(prefix)) {
+                return -1;
+            }
+            try {
+                int index = Integer.parseInt(name.substring(prefix.length()));
+                return index >= 0 && index < count ? index : -1;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * The outcome of one scale run.
+     */
+    public static class Result {
+
+        private final int count;
+        private final int failedCreates;
+        private final long createNanos;
+        private final int found;
+        private final long duplicates;
+        private final long others;
+        private final long pages;
+        private final long bytes;
+        private final long verifyNanos;
+
+        Result(int count, int failedCreates, long createNanos, Verification verification, long verifyNanos) {
+            this.count = count;
+            this.failedCreates = failedCreates;
+            this.createNanos = createNanos;
+            this.found = verification.seen.cardinality();
+            this.duplicates = verification.duplicates;
+            this.others = verification.others;
+            this.pages = verification.pages;
+            this.bytes = verification.bytes;
+            this.verifyNanos = verifyNanos;
+        }
+
+        public int getFailedCreates() {
+            return failedCreates;
+        }
+
+        /**
+         * @return The number of distinct expected cards the pages contained.
+         */
+        public int getFound() {
+            return found;
+        }
+
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        /**
+         * @return true if every created card was found exactly once.
+         */
+        public boolean isComplete() {
+            return found == count - failedCreates && duplicates == 0;
+        }
+
+        /**
+         * @return Created cards per second.
+         */
+        public double getCreateThroughput() {
+            return (count - failedCreates) / (createNanos / 1e9);
+        }
+
+        /**
+         * @return Megabytes of card pages parsed per second, including the time waiting for each page.
+         */
+        public double getVerifyMegabytesPerSecond() {
+            return bytes / 1e6 / (verifyNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("created %d/%d cards in %.1f s (%.1f cards/s); verified %d pages, %.2f MB in %.1f ms "
+                            + "(%.2f MB/s): found %d, missing %d, duplicates %d, other cards %d",
+                    count - failedCreates, count, createNanos / 1e9, getCreateThroughput(), pages, bytes / 1e6,
+                    verifyNanos / 1e6, getVerifyMegabytesPerSecond(), found, count - failedCreates - found, duplicates,
+                    others);
+        }
+    }
+}
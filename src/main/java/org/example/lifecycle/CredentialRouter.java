@@ -0,0 +1,220 @@
+package org.example.lifecycle;
+
+import utilities.ConfigReader;
+import utilities.Credential;
+import utilities.http.TokenBucket;
+import utilities.http.TrelloRateLimiter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spreads lifecycle chains over several Trello credential pairs, so their rate limits add up.
+ *
+ * Every pair ("TrelloCredentials", see {@link ConfigReader#getCredentials()}) is placed on a consistent-hash ring
+ * with {@value #VIRTUAL_NODES} points, and a chain goes to the pair that follows its chain id on the ring, so the same
+ * chain id always maps to the same pair and adding a pair only moves the chains that land on its points. A chain keeps
+ * its pair from its first to its last call, which means every resource is touched with the token that created it.
+ *
+ * When the pair a new chain hashes to is throttled (its {@link TokenBucket} has no free slot left, was slowed down by
+ * 429s or is paused by Retry-After), the chain goes to the least-loaded pair instead: the one whose backlog and active
+ * chains take the least time at its current rate, preferring pairs that are not throttled themselves. Chains already
+ * running stay where they are.
+ */
+public class CredentialRouter {
+
+    static final int VIRTUAL_NODES = 64;
+
+    private static CredentialRouter shared;
+
+    private final List<Shard> shards = new ArrayList<>();
+    private final TreeMap<Long, Shard> ring = new TreeMap<>();
+    private final LongAdder rerouted = new LongAdder();
+
+    /**
+     * @param baseUrl     The Trello base URL.
+     * @param credentials The credential pairs to spread chains over.
+     * @param rateLimiter The limiter whose buckets tell how loaded each pair is.
+     */
+    public CredentialRouter(String baseUrl, List<Credential> credentials, TrelloRateLimiter rateLimiter) {
+        if (credentials.isEmpty()) {
+            throw new IllegalArgumentException("At least one credential pair is needed");
+        }
+        for (Credential credential : credentials) {
+            Shard shard = new Shard(credential, new TrelloOperations(baseUrl, credential),
+                    rateLimiter.bucket(credential.getApiKey(), credential.getApiToken()));
+            shards.add(shard);
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                ring.put(hash(credential.getFingerprint() + "#" + i), shard);
+            }
+        }
+    }
+
+    /**
+     * Returns the process-wide router for the configured credentials, creating it on first use.
+     *
+     * @return The shared router.
+     */
+    public static synchronized CredentialRouter shared() {
+        if (shared == null) {
+            shared = new CredentialRouter(ConfigReader.getBaseUrl(), ConfigReader.getCredentials(),
+                    TrelloRateLimiter.shared());
+        }
+        return shared;
+    }
+
+    /**
+     * Looks up the pair a key hashes to, ignoring load. Use it for work that must always run with the same pair,
+     * e.g. a test class.
+     *
+     * @param key The key, e.g. a chain id.
+     * @return The pair's shard.
+     */
+    public Shard primary(long key) {
+        Map.Entry<Long, Shard> entry = ring.ceilingEntry(mix(key));
+        return (entry != null ? entry : ring.firstEntry()).getValue();
+    }
+
+    /**
+     * Assigns a new chain to a pair. The chain must call {@link Shard#release()} when it is done.
+     *
+     * @param chainId The chain id.
+     * @return The shard whose operations the chain must use for all of its calls.
+     */
+    public Shard route(int chainId) {
+        Shard shard = primary(chainId);
+        if (shard.isThrottled()) {
+            Shard leastLoaded = leastLoaded();
+            if (leastLoaded != shard) {
+                rerouted.increment();
+                leastLoaded.reroutedHere.increment();
+                shard = leastLoaded;
+            }
+        }
+        shard.routed.increment();
+        shard.active.incrementAndGet();
+        return shard;
+    }
+
+    private Shard leastLoaded() {
+        Shard best = null;
+        for (Shard shard : shards) {
+            if (best == null || isLessLoaded(shard, best)) {
+                best = shard;
+            }
+        }
+        return best;
+    }
+
+    private static boolean isLessLoaded(Shard candidate, Shard current) {
+        if (candidate.isThrottled() != current.isThrottled()) {
+            return !candidate.isThrottled();
+        }
+        return candidate.load() < current.load();
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public long getRerouted() {
+        return rerouted.sum();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder().append(shards.size()).append(" credential pairs, ")
+                .append(getRerouted()).append(" chains rerouted");
+        shards.forEach(shard -> out.append(System.lineSeparator()).append("  ").append(shard));
+        return out.toString();
+    }
+
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Spreads consecutive keys (chain ids are 0, 1, 2, ...) evenly over the ring (SplitMix64 finaliser).
+     */
+    private static long mix(long key) {
+        long z = key + 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * One credential pair, its operations and how many chains it serves.
+     */
+    public static final class Shard {
+
+        private final Credential credential;
+        private final TrelloOperations operations;
+        private final TokenBucket bucket;
+        private final AtomicInteger active = new AtomicInteger();
+        private final LongAdder routed = new LongAdder();
+        private final LongAdder reroutedHere = new LongAdder();
+
+        Shard(Credential credential, TrelloOperations operations, TokenBucket bucket) {
+            this.credential = credential;
+            this.operations = operations;
+            this.bucket = bucket;
+        }
+
+        public Credential getCredential() {
+            return credential;
+        }
+
+        /**
+         * @return Operations signed with this pair.
+         */
+        public TrelloOperations getOperations() {
+            return operations;
+        }
+
+        /**
+         * Marks one chain routed here as finished.
+         */
+        public void release() {
+            active.decrementAndGet();
+        }
+
+        public int getActiveChains() {
+            return active.get();
+        }
+
+        public long getRoutedChains() {
+            return routed.sum();
+        }
+
+        boolean isThrottled() {
+            return bucket != null && (bucket.isSlowedDown() || bucket.getBacklogNanos() > 0);
+        }
+
+        /**
+         * @return Seconds of work queued on this pair: its backlog plus its active chains at the current rate.
+         */
+        double load() {
+            if (bucket == null) {
+                return active.get();
+            }
+            return bucket.getBacklogNanos() / 1e9 + (active.get() + 1) / bucket.getCurrentRate();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: chains=%d (%d rerouted here), active=%d%s", credential, getRoutedChains(),
+                    reroutedHere.sum(), getActiveChains(), bucket == null ? "" : ", " + bucket);
+        }
+    }
+}
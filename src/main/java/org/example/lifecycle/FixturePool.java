@@ -0,0 +1,305 @@
+package org.example.lifecycle;
+
+import io.restassured.response.Response;
+import utilities.ConfigReader;
+import utilities.VirtualThreads;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a number of ready board + list pairs and leases them to chains, so board creation (the slowest Trello call)
+ * and list creation happen in the background instead of on the measured path.
+ *
+ * The pool tops itself up to "FixturePoolSize" ready fixtures whenever one is leased, using at most
+ * "FixturePoolRefillConcurrency" requests at a time. A released fixture is reset by archiving all cards on its list
+ * and goes back into the pool; if the reset fails, or the pool is already full, its board is deleted instead. A lease
+ * that finds the pool empty waits up to "FixturePoolLeaseTimeoutMillis" for the next fixture to be ready. Closing the
+ * pool deletes the boards of all fixtures it still holds; boards it could not delete are in the resource ledger.
+ */
+public class FixturePool implements AutoCloseable {
+
+    private final TrelloOperations operations;
+    private final String boardName;
+    private final String listName;
+    private final int size;
+    private final long leaseTimeoutMillis;
+    private final ExecutorService refiller;
+    private final Semaphore inFlight;
+    private final BlockingQueue<Fixture> ready = new LinkedBlockingQueue<>();
+    // Fixtures being created or reset; they count towards the pool size so the pool does not overshoot
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder leases = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder leaseWaitNanos = new LongAdder();
+    private final AtomicLong maxLeaseWaitNanos = new AtomicLong();
+    private final LongAdder provisioned = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * Creates the pool and starts filling it.
+     *
+     * @param operations         The operations used to create, reset and delete fixtures.
+     * @param boardName          The name of fixture boards.
+     * @param listName           The name of fixture lists.
+     * @param size               How many ready fixtures the pool keeps.
+     * @param refillConcurrency  How many fixtures are created or reset at the same time.
+     * @param leaseTimeoutMillis How long a lease waits for a fixture when the pool is empty.
+     */
+    public FixturePool(TrelloOperations operations, String boardName, String listName, int size, int refillConcurrency,
+                       long leaseTimeoutMillis) {
+        this.operations = operations;
+        this.boardName = boardName;
+        this.listName = listName;
+        this.size = size;
+        this.leaseTimeoutMillis = leaseTimeoutMillis;
+        this.refiller = VirtualThreads.newExecutor("fixture-refill", refillConcurrency);
+        this.inFlight = new Semaphore(refillConcurrency);
+        refill();
+    }
+
+    /**
+     * Creates a pool from "FixturePoolSize" (default 4), "FixturePoolRefillConcurrency" (default 2) and
+     * "FixturePoolLeaseTimeoutMillis" (default 30000).
+     */
+    public static FixturePool fromConfig(TrelloOperations operations, String boardName, String listName) {
+        return new FixturePool(operations, boardName, listName,
+                (int) ConfigReader.getLong("FixturePoolSize", 4),
+                (int) ConfigReader.getLong("FixturePoolRefillConcurrency", 2),
+                ConfigReader.getLong("FixturePoolLeaseTimeoutMillis", 30_000));
+    }
+
+    /**
+     * Waits until the pool holds its full number of ready fixtures, e.g. before a measured run starts.
+     *
+     * @param timeoutMillis The longest time to wait.
+     * @return true if the pool is full.
+     */
+    public boolean awaitReady(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (ready.size() < size) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /**
+     * Takes a ready fixture, waiting for one if the pool is empty.
+     *
+     * @return A fixture with an empty list; it belongs to the caller until {@link #release(Fixture)}.
+     * @throws IllegalStateException If no fixture became ready within the lease timeout.
+     */
+    public Fixture lease() throws InterruptedException {
+        leases.increment();
+        Fixture fixture = ready.poll();
+        if (fixture != null) {
+            hits.increment();
+            refill();
+            return fixture;
+        }
+        refill();
+        long start = System.nanoTime();
+        fixture = ready.poll(leaseTimeoutMillis, TimeUnit.MILLISECONDS);
+        long waited = System.nanoTime() - start;
+        leaseWaitNanos.add(waited);
+        maxLeaseWaitNanos.accumulateAndGet(waited, Math::max);
+        if (fixture == null) {
+            throw new IllegalStateException("No fixture became ready within " + leaseTimeoutMillis + " ms");
+        }
+        refill();
+        return fixture;
+    }
+
+    /**
+     * Hands a fixture back. It is reset in the background; cards the caller left on the list are archived.
+     *
+     * @param fixture A fixture obtained from {@link #lease()}.
+     */
+    public void release(Fixture fixture) {
+        pending.incrementAndGet();
+        try {
+            submit(() -> reset(fixture));
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            discard(fixture);
+        }
+    }
+
+    private void refill() {
+        while (!closed) {
+            int queued = pending.get();
+            if (ready.size() + queued >= size) {
+                return;
+            }
+            if (pending.compareAndSet(queued, queued + 1)) {
+                try {
+                    submit(this::provision);
+                } catch (RejectedExecutionException e) {
+                    pending.decrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void submit(Runnable task) {
+        refiller.execute(() -> {
+            inFlight.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void provision() {
+        Fixture fixture = null;
+        try {
+            Response board = operations.createBoard(boardName);
+            if (board.statusCode() != 200) {
+                throw new IllegalStateException("Creating a fixture board returned " + board.statusCode());
+            }
+            String boardId = TrelloOperations.idOf(board);
+            Response list = operations.createList(boardId, listName);
+            if (list.statusCode() != 200) {
+                operations.deleteBoard(boardId);
+                throw new IllegalStateException("Creating a fixture list returned " + list.statusCode());
+            }
+            fixture = new Fixture(boardId, TrelloOperations.idOf(list));
+            provisioned.increment();
+        } catch (RuntimeException e) {
+            failures.increment();
+            System.out.println("Could not create fixture: " + e.getMessage());
+        } finally {
+            pending.decrementAndGet();
+        }
+        if (fixture != null) {
+            offer(fixture);
+        }
+    }
+
+    private void reset(Fixture fixture) {
+        boolean emptied = false;
+        try {
+            emptied = !closed && operations.archiveAllCards(fixture.getListId()).statusCode() == 200;
+        } catch (RuntimeException e) {
+            failures.increment();
+            System.out.println("Could not reset fixture board " + fixture.getBoardId() + ": " + e.getMessage());
+        } finally {
+            pending.decrementAndGet();
+        }
+        if (emptied) {
+            resets.increment();
+            offer(fixture);
+        } else {
+            discard(fixture);
+            refill();
+        }
+    }
+
+    private void offer(Fixture fixture) {
+        if (closed || ready.size() >= size) {
+            discard(fixture);
+        } else {
+            ready.offer(fixture);
+        }
+    }
+
+    private void discard(Fixture fixture) {
+        try {
+            operations.deleteBoard(fixture.getBoardId());
+            discarded.increment();
+        } catch (RuntimeException e) {
+            System.out.println("Could not delete fixture board " + fixture.getBoardId() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return The share of leases that found a ready fixture without waiting, between 0 and 1.
+     */
+    public double getHitRate() {
+        long total = leases.sum();
+        return total == 0 ? 0.0 : (double) hits.sum() / total;
+    }
+
+    /**
+     * @return The mean time a lease waited, counting leases that did not wait as 0.
+     */
+    public double getMeanLeaseWaitMillis() {
+        long total = leases.sum();
+        return total == 0 ? 0.0 : leaseWaitNanos.sum() / 1e6 / total;
+    }
+
+    /**
+     * @return The operations fixtures are created with; calls on a leased fixture must use the same credentials.
+     */
+    public TrelloOperations getOperations() {
+        return operations;
+    }
+
+    public int getReadyCount() {
+        return ready.size();
+    }
+
+    /**
+     * Stops refilling, waits for resets in flight and deletes the boards of all fixtures the pool still holds. If the
+     * wait is interrupted, the held fixtures are still deleted and the interrupt flag is set again.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        refiller.shutdown();
+        try {
+            refiller.awaitTermination(leaseTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Fixture fixture;
+        while ((fixture = ready.poll()) != null) {
+            discard(fixture);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("leases=%d, hits=%d (%.0f%%), lease wait mean=%.2f ms max=%.2f ms, created=%d, reset=%d, "
+                        + "deleted=%d, failed=%d", leases.sum(), hits.sum(), getHitRate() * 100, getMeanLeaseWaitMillis(),
+                maxLeaseWaitNanos.get() / 1e6, provisioned.sum(), resets.sum(), discarded.sum(), failures.sum());
+    }
+
+    /**
+     * A board with one list, leased from the pool.
+     */
+    public static final class Fixture {
+
+        private final String boardId;
+        private final String listId;
+
+        Fixture(String boardId, String listId) {
+            this.boardId = boardId;
+            this.listId = listId;
+        }
+
+        public String getBoardId() {
+            return boardId;
+        }
+
+        public String getListId() {
+            return listId;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.lifecycle;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Everything one board -> list -> cards -> cleanup chain needs to remember: the ids it created and how long each step
+ * took. Every chain gets its own context, so chains never see each other's ids.
+ */
+public class LifecycleContext {
+
+    private final int chainId;
+    private final Map<String, Long> stepNanos = new LinkedHashMap<>();
+    private volatile String boardId;
+    private volatile String listId;
+    private volatile String cardId1;
+    private volatile String cardId2;
+    private volatile String credential;
+    private volatile String failedStep;
+    private volatile Throwable failure;
+    private volatile boolean finished;
+    private long startNanos;
+    private long endNanos;
+
+    public LifecycleContext(int chainId) {
+        this.chainId = chainId;
+    }
+
+    public int getChainId() {
+        return chainId;
+    }
+
+    public String getBoardId() {
+        return boardId;
+    }
+
+    public void setBoardId(String boardId) {
+        this.boardId = boardId;
+    }
+
+    public String getListId() {
+        return listId;
+    }
+
+    public void setListId(String listId) {
+        this.listId = listId;
+    }
+
+    public String getCardId1() {
+        return cardId1;
+    }
+
+    public void setCardId1(String cardId1) {
+        this.cardId1 = cardId1;
+    }
+
+    public String getCardId2() {
+        return cardId2;
+    }
+
+    public void setCardId2(String cardId2) {
+        this.cardId2 = cardId2;
+    }
+
+    /**
+     * @return The fingerprint of the credential pair the chain runs with, or null if it uses the default pair.
+     */
+    public String getCredential() {
+        return credential;
+    }
+
+    public void setCredential(String credential) {
+        this.credential = credential;
+    }
+
+    /**
+     * Records the duration of one step.
+     *
+     * @param step  The step name.
+     * @param nanos The duration in nanoseconds.
+     */
+    public synchronized void recordStep(String step, long nanos) {
+        stepNanos.put(step, nanos);
+    }
+
+    /**
+     * @return The step durations in nanoseconds, in the order the steps finished.
+     */
+    public synchronized Map<String, Long> getStepNanos() {
+        return new LinkedHashMap<>(stepNanos);
+    }
+
+    /**
+     * Marks the chain as failed; only the first failure is kept.
+     *
+     * @param step  The step that failed.
+     * @param cause The failure.
+     */
+    public synchronized void fail(String step, Throwable cause) {
+        if (failure == null) {
+            failedStep = step;
+            failure = cause;
+        }
+    }
+
+    /**
+     * @return true if the chain ran to its end without failing; a chain that never ran is not successful.
+     */
+    public boolean isSuccessful() {
+        return finished && failure == null;
+    }
+
+    public String getFailedStep() {
+        return failedStep;
+    }
+
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public void markStarted() {
+        startNanos = System.nanoTime();
+    }
+
+    public void markFinished() {
+        endNanos = System.nanoTime();
+        finished = true;
+    }
+
+    /**
+     * @return The wall-clock duration of the whole chain in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return endNanos - startNanos;
+    }
+
+    @Override
+    public String toString() {
+        if (!finished) {
+            return String.format("chain %d: NOT FINISHED", chainId);
+        }
+        return String.format("chain %d: %s in %.1f ms%s%s", chainId, isSuccessful() ? "OK" : "FAILED",
+                getElapsedNanos() / 1e6, credential == null ? "" : " with credential " + credential,
+                isSuccessful() ? "" : " at " + failedStep + " (" + failure.getMessage() + ")");
+    }
+}
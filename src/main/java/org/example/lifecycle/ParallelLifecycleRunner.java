@@ -0,0 +1,145 @@
+package org.example.lifecycle;
+
+import utilities.ConfigReader;
+import utilities.VirtualThreads;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs many independent board -> list -> cards -> cleanup chains at the same time.
+ *
+ * Each chain gets its own {@link LifecycleContext}, so any number of boards can exist during a run. Chains are
+ * started on a virtual-thread executor (see {@link VirtualThreads}); "ParallelChains" sets how many run at once and
+ * "ParallelLifecycles" how many are run in total. The runner prints every chain's result and the overall throughput.
+ * With "FixturePoolSize" above 0, chains lease their board and list from a {@link FixturePool} that is filled before
+ * the run starts, and the pool's hit rate and lease wait times are printed as well. With several "TrelloCredentials",
+ * chains are spread over them by a {@link CredentialRouter}, and the chains and rate limit of each pair are printed.
+ */
+public class ParallelLifecycleRunner {
+
+    private final TrelloLifecycle lifecycle;
+    private final int concurrency;
+
+    /**
+     * @param lifecycle   The lifecycle every chain runs.
+     * @param concurrency How many chains run at once; must be positive.
+     */
+    public ParallelLifecycleRunner(TrelloLifecycle lifecycle, int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Parallel chains must be positive: " + concurrency);
+        }
+        this.lifecycle = lifecycle;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Runs the given number of lifecycles with at most {@code concurrency} in flight.
+     *
+     * @param lifecycles The total number of lifecycles to run.
+     * @return The result of the run.
+     */
+    public Result run(int lifecycles) {
+        List<LifecycleContext> contexts = new ArrayList<>(lifecycles);
+        for (int i = 0; i < lifecycles; i++) {
+            contexts.add(new LifecycleContext(i));
+        }
+
+        long start = System.nanoTime();
+        ExecutorService executor = VirtualThreads.newExecutor("lifecycle", concurrency);
+        try {
+            // Each worker pulls the next unstarted chain, which caps the number of chains in flight
+            AtomicInteger next = new AtomicInteger();
+            CompletableFuture<?>[] workers = new CompletableFuture<?>[Math.min(concurrency, lifecycles)];
+            for (int w = 0; w < workers.length; w++) {
+                workers[w] = CompletableFuture.runAsync(() -> {
+                    int index;
+                    while ((index = next.getAndIncrement()) < lifecycles) {
+                        lifecycle.run(contexts.get(index));
+                    }
+                }, executor);
+            }
+            CompletableFuture.allOf(workers).join();
+        } finally {
+            executor.shutdown();
+        }
+        return new Result(contexts, System.nanoTime() - start);
+    }
+
+    /**
+     * The contexts of all chains of one run plus its wall-clock duration.
+     */
+    public static class Result {
+
+        private final List<LifecycleContext> contexts;
+        private final long elapsedNanos;
+
+        Result(List<LifecycleContext> contexts, long elapsedNanos) {
+            this.contexts = contexts;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public List<LifecycleContext> getContexts() {
+            return contexts;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public long getSuccessCount() {
+            return contexts.stream().filter(LifecycleContext::isSuccessful).count();
+        }
+
+        /**
+         * @return Successful lifecycles per second.
+         */
+        public double getThroughput() {
+            return getSuccessCount() / (elapsedNanos / 1e9);
+        }
+
+        public void print() {
+            contexts.forEach(System.out::println);
+            System.out.printf("%d/%d lifecycles succeeded in %.1f ms: %.1f lifecycles/s%n",
+                    getSuccessCount(), contexts.size(), elapsedNanos / 1e6, getThroughput());
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        TrelloOperations operations = new TrelloOperations(ConfigReader.getBaseUrl(),
+                ConfigReader.getProperty("APIKey"), ConfigReader.getProperty("APIToken"));
+        TrelloLifecycle lifecycle = new TrelloLifecycle(operations, ConfigReader.getProperty("boardName"),
+                ConfigReader.getProperty("listName"), ConfigReader.getProperty("cardName1"), ConfigReader.getProperty("cardName2"));
+        lifecycle.setVerifyReads(Boolean.parseBoolean(ConfigReader.getProperty("LifecycleVerifyReads", "false").trim()));
+
+        int chains = (int) ConfigReader.getLong("ParallelChains", 8);
+        int lifecycles = (int) ConfigReader.getLong("ParallelLifecycles", chains);
+        System.out.printf("Running %d lifecycles, %d at a time, on %s threads%n", lifecycles, chains,
+                VirtualThreads.isAvailable() ? "virtual" : "platform");
+        if (ConfigReader.getLong("FixturePoolSize", 0) <= 0) {
+            CredentialRouter router = ConfigReader.getCredentials().size() > 1 ? CredentialRouter.shared() : null;
+            lifecycle.setCredentialRouter(router);
+            new ParallelLifecycleRunner(lifecycle, chains).run(lifecycles).print();
+            if (router != null) {
+                System.out.println("Credentials: " + router);
+            }
+            printVerificationReads();
+            return;
+        }
+        try (FixturePool pool = FixturePool.fromConfig(operations, ConfigReader.getProperty("boardName"),
+                ConfigReader.getProperty("listName"))) {
+            pool.awaitReady(ConfigReader.getLong("FixturePoolLeaseTimeoutMillis", 30_000));
+            lifecycle.setFixturePool(pool);
+            new ParallelLifecycleRunner(lifecycle, chains).run(lifecycles).print();
+            System.out.println("Fixture pool: " + pool);
+            printVerificationReads();
+        }
+    }
+
+    private static void printVerificationReads() {
+        ReadCoalescer.all().forEach(reads -> System.out.println("Verification reads: " + reads));
+    }
+}
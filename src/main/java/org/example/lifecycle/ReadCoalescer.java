@@ -0,0 +1,287 @@
+package org.example.lifecycle;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import io.restassured.response.Response;
+import utilities.ConfigReader;
+import utilities.VirtualThreads;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces verification reads into Trello's GET /batch, which answers up to {@value #MAX_URLS} GET routes in one
+ * round trip.
+ *
+ * {@link #read(String)} queues a path and returns at once. The queue is sent when it holds "BatchReadMaxUrls"
+ * (default and maximum 10) paths, or "BatchReadWindowMillis" (default 20) after the first path was queued, whichever
+ * comes first, and each result is handed back to the future of the path that asked for it. A queue of one path is
+ * sent as a plain GET. Reads that are queued together, e.g. by concurrent lifecycle chains or by a test that checks
+ * several resources at once, therefore cost one round trip instead of one each.
+ *
+ * A batch is signed with one credential pair, so there is one coalescer per {@link TrelloOperations}; see
+ * {@link #of(TrelloOperations)}.
+ */
+public class ReadCoalescer {
+
+    public static final int MAX_URLS = 10;
+
+    private static final Map<String, ReadCoalescer> SHARED = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "read-coalescer-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final TrelloOperations operations;
+    private final int maxUrls;
+    private final long windowMillis;
+    private final ExecutorService sender;
+    private List<PendingRead> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder singles = new LongAdder();
+    private final LongAdder failedRoundTrips = new LongAdder();
+
+    /**
+     * @param operations   The operations whose credentials sign the reads.
+     * @param maxUrls      How many paths a batch holds at most, between 1 and {@value #MAX_URLS}.
+     * @param windowMillis How long the first queued path waits for others.
+     */
+    public ReadCoalescer(TrelloOperations operations, int maxUrls, long windowMillis) {
+        if (maxUrls < 1 || maxUrls > MAX_URLS) {
+            throw new IllegalArgumentException("A batch holds between 1 and " + MAX_URLS + " urls, not " + maxUrls);
+        }
+        this.operations = operations;
+        this.maxUrls = maxUrls;
+        this.windowMillis = windowMillis;
+        this.sender = VirtualThreads.newExecutor("read-coalescer", 8);
+    }
+
+    /**
+     * Creates a coalescer from "BatchReadMaxUrls" (default 10) and "BatchReadWindowMillis" (default 20).
+     */
+    public static ReadCoalescer fromConfig(TrelloOperations operations) {
+        return new ReadCoalescer(operations,
+                (int) ConfigReader.getLong("BatchReadMaxUrls", MAX_URLS),
+                ConfigReader.getLong("BatchReadWindowMillis", 20));
+    }
+
+    /**
+     * Returns the process-wide coalescer for the base URL and credential pair of the given operations, creating it
+     * from the configuration on first use.
+     *
+     * @param operations The operations whose reads to coalesce.
+     * @return The shared coalescer.
+     */
+    public static ReadCoalescer of(TrelloOperations operations) {
+        return SHARED.computeIfAbsent(operations.getBaseUrl() + " " + operations.getFingerprint(),
+                key -> fromConfig(operations));
+    }
+
+    /**
+     * @return Every coalescer created by {@link #of(TrelloOperations)} so far.
+     */
+    public static Collection<ReadCoalescer> all() {
+        return SHARED.values();
+    }
+
+    /**
+     * Queues a read.
+     *
+     * @param path The path below the base URL, e.g. "/cards/{id}".
+     * @return A future that completes with the result, or exceptionally if the round trip carrying it failed.
+     */
+    public CompletableFuture<Result> read(String path) {
+        PendingRead read = new PendingRead(path);
+        reads.increment();
+        List<PendingRead> full = null;
+        synchronized (this) {
+            pending.add(read);
+            if (pending.size() >= maxUrls) {
+                full = takePending();
+            } else if (pending.size() == 1) {
+                scheduledFlush = TIMER.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        return read.future;
+    }
+
+    public CompletableFuture<Result> readBoard(String boardId) {
+        return read(TrelloOperations.READ_BOARD.appendTo(TrelloOperations.BOARD_ENDPOINT + "/" + boardId));
+    }
+
+    public CompletableFuture<Result> readList(String listId) {
+        return read(TrelloOperations.READ_LIST.appendTo(TrelloOperations.LISTS_ENDPOINT + "/" + listId));
+    }
+
+    /**
+     * Reads a whole card: /batch separates its routes with commas, so a route cannot carry a projection onto the
+     * several fields the callers check.
+     */
+    public CompletableFuture<Result> readCard(String cardId) {
+        return read(TrelloOperations.CARDS_ENDPOINT + "/" + cardId);
+    }
+
+    /**
+     * Sends the queued reads now instead of waiting for the window to end.
+     */
+    public void flush() {
+        List<PendingRead> batch;
+        synchronized (this) {
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    private List<PendingRead> takePending() {
+        List<PendingRead> batch = pending;
+        pending = new ArrayList<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void send(List<PendingRead> batch) {
+        sender.execute(() -> {
+            try {
+                if (batch.size() == 1) {
+                    singles.increment();
+                    Response response = operations.read(batch.get(0).path);
+                    batch.get(0).future.complete(new Result(response.statusCode(), response.statusCode() == 200
+                            ? JsonParser.parseString(response.asString()) : null));
+                    return;
+                }
+                batches.increment();
+                List<String> paths = new ArrayList<>(batch.size());
+                batch.forEach(read -> paths.add(read.path));
+                Response response = operations.readBatch(paths);
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Batch read returned " + response.statusCode());
+                }
+                JsonArray results = JsonParser.parseString(response.asString()).getAsJsonArray();
+                if (results.size() != batch.size()) {
+                    throw new IllegalStateException("Batch read returned " + results.size() + " results for "
+                            + batch.size() + " urls");
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).future.complete(Result.of(results.get(i).getAsJsonObject()));
+                }
+            } catch (RuntimeException e) {
+                failedRoundTrips.increment();
+                batch.forEach(read -> read.future.completeExceptionally(e));
+            }
+        });
+    }
+
+    public long getReads() {
+        return reads.sum();
+    }
+
+    /**
+     * @return The number of requests sent, batches and plain GETs together.
+     */
+    public long getRoundTrips() {
+        return batches.sum() + singles.sum();
+    }
+
+    /**
+     * @return How many requests coalescing saved compared with one GET per read.
+     */
+    public long getSavedRoundTrips() {
+        return getReads() - getRoundTrips();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("credential %s: reads=%d, round trips=%d (batches=%d, single GETs=%d, failed=%d), "
+                        + "saved=%d", operations.getFingerprint(), getReads(), getRoundTrips(), batches.sum(),
+                singles.sum(), failedRoundTrips.sum(), getSavedRoundTrips());
+    }
+
+    /**
+     * A queued path and the future waiting for its result.
+     */
+    private static final class PendingRead {
+
+        final String path;
+        final CompletableFuture<Result> future = new CompletableFuture<>();
+
+        PendingRead(String path) {
+            this.path = path;
+        }
+    }
+
+    /**
+     * The status and, if the read succeeded, the body of one read.
+     */
+    public static final class Result {
+
+        private final int status;
+        private final JsonElement body;
+
+        Result(int status, JsonElement body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        /**
+         * Reads one element of a /batch response: {"200": body} or {"name", "message", "statusCode"}.
+         */
+        static Result of(JsonObject element) {
+            if (element.has("200")) {
+                return new Result(200, element.get("200"));
+            }
+            JsonElement status = element.get("statusCode");
+            return new Result(status != null && status.isJsonPrimitive() ? status.getAsInt() : 0, null);
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * @return The resource, or null if the read failed.
+         */
+        public JsonElement getBody() {
+            return body;
+        }
+
+        /**
+         * @param field A top-level field of the resource.
+         * @return The field as a string, or null if the read failed or the field is missing or null.
+         */
+        public String getString(String field) {
+            if (body == null || !body.isJsonObject()) {
+                return null;
+            }
+            JsonElement value = body.getAsJsonObject().get(field);
+            return value == null || value.isJsonNull() ? null : value.getAsString();
+        }
+
+        @Override
+        public String toString() {
+            return status + (body == null ? "" : " " + body);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.lifecycle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A small dependency graph of asynchronous steps.
+ *
+ * Each step names the steps it depends on and receives their results when it starts. In pipelined mode a step starts
+ * as soon as its own dependencies are done, so independent siblings run at the same time; in serial mode the steps
+ * run one at a time in the order they were added, which reproduces the old dependsOnMethods chain.
+ */
+public class StepGraph {
+
+    private final Map<String, Step> steps = new LinkedHashMap<>();
+
+    /**
+     * Adds a step. Dependencies must have been added before.
+     *
+     * @param name      The step name.
+     * @param action    Starts the step given the results of all finished steps; returns the step's result.
+     * @param dependsOn The names of the steps that must finish first.
+     * @return This graph, for chaining.
+     */
+    public StepGraph add(String name, Function<Map<String, String>, CompletableFuture<String>> action, String... dependsOn) {
+        for (String dependency : dependsOn) {
+            if (!steps.containsKey(dependency)) {
+                throw new IllegalArgumentException("Step " + name + " depends on unknown step " + dependency);
+            }
+        }
+        if (steps.putIfAbsent(name, new Step(action, dependsOn)) != null) {
+            throw new IllegalArgumentException("Duplicate step " + name);
+        }
+        return this;
+    }
+
+    /**
+     * Runs every step as soon as its dependencies are done.
+     *
+     * @param context Receives the duration of each step.
+     * @return A future with the results of all steps, failing with the first step failure.
+     */
+    public CompletableFuture<Map<String, String>> executePipelined(LifecycleContext context) {
+        Map<String, String> results = new ConcurrentHashMap<>();
+        Map<String, CompletableFuture<String>> futures = new LinkedHashMap<>();
+        for (Map.Entry<String, Step> entry : steps.entrySet()) {
+            Step step = entry.getValue();
+            CompletableFuture<?>[] dependencies = Arrays.stream(step.dependsOn).map(futures::get).toArray(CompletableFuture<?>[]::new);
+            futures.put(entry.getKey(), CompletableFuture.allOf(dependencies)
+                    .thenCompose(ignored -> start(entry.getKey(), step, results, context)));
+        }
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).thenApply(ignored -> results);
+    }
+
+    /**
+     * Runs the steps one after another in insertion order.
+     *
+     * @param context Receives the duration of each step.
+     * @return A future with the results of all steps, failing with the first step failure.
+     */
+    public CompletableFuture<Map<String, String>> executeSerial(LifecycleContext context) {
+        Map<String, String> results = new ConcurrentHashMap<>();
+        CompletableFuture<String> chain = CompletableFuture.completedFuture(null);
+        for (Map.Entry<String, Step> entry : steps.entrySet()) {
+            chain = chain.thenCompose(ignored -> start(entry.getKey(), entry.getValue(), results, context));
+        }
+        return chain.thenApply(ignored -> results);
+    }
+
+    /**
+     * @return The number of steps on the longest dependency path, i.e. the minimum number of sequential round trips.
+     */
+    public int criticalPathLength() {
+        Map<String, Integer> depth = new LinkedHashMap<>();
+        int longest = 0;
+        for (Map.Entry<String, Step> entry : steps.entrySet()) {
+            int d = 1;
+            for (String dependency : entry.getValue().dependsOn) {
+                d = Math.max(d, depth.get(dependency) + 1);
+            }
+            depth.put(entry.getKey(), d);
+            longest = Math.max(longest, d);
+        }
+        return longest;
+    }
+
+    /**
+     * @return The step names in insertion order.
+     */
+    public List<String> stepNames() {
+        return new ArrayList<>(steps.keySet());
+    }
+
+    private static CompletableFuture<String> start(String name, Step step, Map<String, String> results, LifecycleContext context) {
+        long start = System.nanoTime();
+        return step.action.apply(results).whenComplete((result, failure) -> {
+            context.recordStep(name, System.nanoTime() - start);
+            if (failure != null) {
+                context.fail(name, failure);
+            } else if (result != null) {
+                results.put(name, result);
+            }
+        });
+    }
+
+    private static final class Step {
+        final Function<Map<String, String>, CompletableFuture<String>> action;
+        final String[] dependsOn;
+
+        Step(Function<Map<String, String>, CompletableFuture<String>> action, String[] dependsOn) {
+            this.action = action;
+            this.dependsOn = dependsOn;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package org.example.lifecycle;
+
+import io.restassured.response.Response;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Runs the same sequence as {@link org.example.TrelloTestRestAssured} (create board, list and two cards, update a
+ * random card, delete both cards and the board) against one {@link LifecycleContext}.
+ *
+ * A failing step stops the chain, but the board is still deleted if it was created so that failed chains do not
+ * leak boards.
+ *
+ * With a {@link FixturePool}, the chain leases a ready board + list instead of creating them ("leaseFixture" step)
+ * and releases it instead of deleting the board, so only the card calls are on the measured path; its card calls use
+ * the pool's credentials, since fixtures belong to the pair that created them.
+ *
+ * With a {@link CredentialRouter}, each chain is assigned a credential pair by its chain id and makes every call with
+ * that pair.
+ *
+ * With read verification on, the chain reads its mutations back: after the update, that the list is on the board and
+ * the card carries the new name and color ("verifyUpdate"); after the deletes, that both cards are gone
+ * ("verifyDeleted"). The reads go through the {@link ReadCoalescer} of the chain's credential pair, so reads of
+ * concurrent chains share /batch requests.
+ */
+public class TrelloLifecycle {
+
+    private final TrelloOperations operations;
+    private final String boardName;
+    private final String listName;
+    private final String cardName1;
+    private final String cardName2;
+    private FixturePool fixturePool;
+    private CredentialRouter credentialRouter;
+    private boolean verifyReads;
+
+    public TrelloLifecycle(TrelloOperations operations, String boardName, String listName, String cardName1, String cardName2) {
+        this.operations = operations;
+        this.boardName = boardName;
+        this.listName = listName;
+        this.cardName1 = cardName1;
+        this.cardName2 = cardName2;
+    }
+
+    public TrelloOperations getOperations() {
+        return operations;
+    }
+
+    /**
+     * @param fixturePool The pool to lease boards and lists from, or null to create and delete them in every chain.
+     */
+    public void setFixturePool(FixturePool fixturePool) {
+        this.fixturePool = fixturePool;
+    }
+
+    /**
+     * @param credentialRouter The router that assigns each chain its credential pair, or null to use the operations
+     *                         passed to the constructor for every chain.
+     */
+    public void setCredentialRouter(CredentialRouter credentialRouter) {
+        this.credentialRouter = credentialRouter;
+    }
+
+    /**
+     * @param verifyReads true to read every mutation back, see above.
+     */
+    public void setVerifyReads(boolean verifyReads) {
+        this.verifyReads = verifyReads;
+    }
+
+    /**
+     * Runs the whole chain. Failures are recorded on the context instead of being thrown.
+     *
+     * @param context The chain's context.
+     * @return The same context, for chaining.
+     */
+    public LifecycleContext run(LifecycleContext context) {
+        if (fixturePool != null) {
+            return runOnFixture(context);
+        }
+        if (credentialRouter == null) {
+            return run(context, operations);
+        }
+        CredentialRouter.Shard shard = credentialRouter.route(context.getChainId());
+        context.setCredential(shard.getCredential().getFingerprint());
+        try {
+            return run(context, shard.getOperations());
+        } finally {
+            shard.release();
+        }
+    }
+
+    private LifecycleContext run(LifecycleContext context, TrelloOperations operations) {
+        context.markStarted();
+        try {
+            context.setBoardId(TrelloOperations.idOf(step(context, "createBoard", () -> operations.createBoard(boardName))));
+            context.setListId(TrelloOperations.idOf(step(context, "createList", () -> operations.createList(context.getBoardId(), listName))));
+            runCardSteps(context, operations);
+            step(context, "deleteBoard", () -> operations.deleteBoard(context.getBoardId()));
+        } catch (RuntimeException e) {
+            if (context.getBoardId() != null && !"deleteBoard".equals(context.getFailedStep())) {
+                // Best-effort cleanup so a failed chain does not leave its board behind
+                try {
+                    operations.deleteBoard(context.getBoardId());
+                } catch (RuntimeException ignored) {
+                    // The chain has already been marked as failed
+                }
+            }
+        } finally {
+            context.markFinished();
+        }
+        return context;
+    }
+
+    private LifecycleContext runOnFixture(LifecycleContext context) {
+        context.markStarted();
+        FixturePool.Fixture fixture = null;
+        try {
+            fixture = leaseFixture(context);
+            context.setBoardId(fixture.getBoardId());
+            context.setListId(fixture.getListId());
+            runCardSteps(context, fixturePool.getOperations());
+        } catch (RuntimeException e) {
+            // The chain has already been marked as failed; the pool archives whatever cards are left
+        } finally {
+            if (fixture != null) {
+                fixturePool.release(fixture);
+            }
+            context.markFinished();
+        }
+        return context;
+    }
+
+    private FixturePool.Fixture leaseFixture(LifecycleContext context) {
+        long start = System.nanoTime();
+        try {
+            return fixturePool.lease();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            context.fail("leaseFixture", e);
+            throw new IllegalStateException("Interrupted while leasing a fixture", e);
+        } catch (RuntimeException e) {
+            context.fail("leaseFixture", e);
+            throw e;
+        } finally {
+            context.recordStep("leaseFixture", System.nanoTime() - start);
+        }
+    }
+
+    private void runCardSteps(LifecycleContext context, TrelloOperations operations) {
+        context.setCardId1(TrelloOperations.idOf(step(context, "createCard1", () -> operations.createCard(context.getListId(), cardName1))));
+        context.setCardId2(TrelloOperations.idOf(step(context, "createCard2", () -> operations.createCard(context.getListId(), cardName2))));
+
+        String randomCardId = ThreadLocalRandom.current().nextBoolean() ? context.getCardId1() : context.getCardId2();
+        step(context, "updateCard", () -> operations.updateCard(randomCardId, context.getListId(), "Trello Card Updated", "blue"));
+        if (verifyReads) {
+            ReadCoalescer reads = ReadCoalescer.of(operations);
+            verify(context, "verifyUpdate", () -> {
+                CompletableFuture<ReadCoalescer.Result> list = reads.readList(context.getListId());
+                CompletableFuture<ReadCoalescer.Result> card = reads.readCard(randomCardId);
+                return context.getBoardId().equals(list.join().getString("idBoard"))
+                        && "Trello Card Updated".equals(card.join().getString("name"))
+                        && "blue".equals(card.join().getString("color"));
+            });
+        }
+        step(context, "deleteCard1", () -> operations.deleteCard(context.getCardId1()));
+        step(context, "deleteCard2", () -> operations.deleteCard(context.getCardId2()));
+        if (verifyReads) {
+            ReadCoalescer reads = ReadCoalescer.of(operations);
+            verify(context, "verifyDeleted", () -> {
+                CompletableFuture<ReadCoalescer.Result> card1 = reads.readCard(context.getCardId1());
+                CompletableFuture<ReadCoalescer.Result> card2 = reads.readCard(context.getCardId2());
+                return card1.join().getStatus() == 404 && card2.join().getStatus() == 404;
+            });
+        }
+    }
+
+    private static void verify(LifecycleContext context, String name, BooleanSupplier check) {
+        long start = System.nanoTime();
+        try {
+            if (!check.getAsBoolean()) {
+                throw new IllegalStateException("Read-back does not match the mutations");
+            }
+        } catch (RuntimeException e) {
+            context.fail(name, e);
+            throw e;
+        } finally {
+            context.recordStep(name, System.nanoTime() - start);
+        }
+    }
+
+    private static Response step(LifecycleContext context, String name, Supplier<Response> call) {
+        long start = System.nanoTime();
+        try {
+            Response response = call.get();
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Expected status 200 but was " + response.statusCode());
+            }
+            return response;
+        } catch (RuntimeException e) {
+            context.fail(name, e);
+            throw e;
+        } finally {
+            context.recordStep(name, System.nanoTime() - start);
+        }
+    }
+}
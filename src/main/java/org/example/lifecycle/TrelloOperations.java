@@ -0,0 +1,198 @@
+package org.example.lifecycle;
+
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import utilities.Credential;
+import utilities.ResourceLedger;
+import utilities.http.JsonFieldExtractor;
+import utilities.http.ResponseProjection;
+import utilities.http.TrelloTransport;
+
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * The board, list and card calls of {@link org.example.TrelloTestRestAssured}, as plain methods that return the raw
+ * response instead of asserting on it. Runners and load generators compose these into chains and decide themselves
+ * what counts as a failure.
+ *
+ * Successful creates and deletes are written to the {@link ResourceLedger}, together with the fingerprint of the
+ * credential pair that made them, so anything a failed or crashed run leaves behind can be reaped later with the
+ * same pair. Instances are immutable and safe to share between threads.
+ */
+public class TrelloOperations {
+
+    public static final String BOARD_ENDPOINT = "/boards";
+    public static final String LISTS_ENDPOINT = "/lists";
+    public static final String CARDS_ENDPOINT = "/cards";
+    public static final String BATCH_ENDPOINT = "/batch";
+
+    // What each read's response is cut down to: only the fields its callers read (Trello always adds the id)
+    public static final ResponseProjection LIST_CARDS = ResponseProjection.fields("name");
+    public static final ResponseProjection READ_BOARD = ResponseProjection.fields("id").without("lists", "labels");
+    public static final ResponseProjection READ_LIST = ResponseProjection.fields("idBoard");
+
+    private final String baseUrl;
+    private final String apiKey;
+    private final String apiToken;
+    private final String fingerprint;
+
+    /**
+     * @param baseUrl  The Trello base URL, e.g. https://api.trello.com/1.
+     * @param apiKey   The API key every call is signed with.
+     * @param apiToken The API token every call is signed with.
+     */
+    public TrelloOperations(String baseUrl, String apiKey, String apiToken) {
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.apiToken = apiToken;
+        this.fingerprint = Credential.fingerprint(apiKey, apiToken);
+    }
+
+    /**
+     * @param baseUrl    The Trello base URL, e.g. https://api.trello.com/1.
+     * @param credential The key/token pair every call is signed with.
+     */
+    public TrelloOperations(String baseUrl, Credential credential) {
+        this(baseUrl, credential.getApiKey(), credential.getApiToken());
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    public String getApiToken() {
+        return apiToken;
+    }
+
+    /**
+     * @return The fingerprint of the credential pair, see {@link Credential#getFingerprint()}.
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public Response createBoard(String name) {
+        return recordCreated(ResourceLedger.BOARD, null, request()
+                .contentType(ContentType.JSON)
+                .queryParams("name", name)
+                .post(BOARD_ENDPOINT));
+    }
+
+    public Response createList(String boardId, String name) {
+        return recordCreated(ResourceLedger.LIST, boardId, request()
+                .contentType(ContentType.JSON)
+                .queryParams("name", name, "idBoard", boardId)
+                .post(LISTS_ENDPOINT));
+    }
+
+    public Response createCard(String listId, String name) {
+        return recordCreated(ResourceLedger.CARD, listId, request()
+                .contentType(ContentType.JSON)
+                .queryParams("name", name, "idList", listId)
+                .post(CARDS_ENDPOINT));
+    }
+
+    public Response updateCard(String cardId, String listId, String name, String color) {
+        return request()
+                .contentType(ContentType.JSON)
+                .queryParams("id", cardId, "name", name, "color", color, "idList", listId)
+                .put(CARDS_ENDPOINT + "/" + cardId);
+    }
+
+    public Response deleteCard(String cardId) {
+        return recordDeleted(ResourceLedger.CARD, cardId, request().delete(CARDS_ENDPOINT + "/" + cardId));
+    }
+
+    /**
+     * Reads one page of the open cards on a list, newest first.
+     *
+     * @param listId The list.
+     * @param limit  The page size, at most 1000.
+     * @param before The id of the oldest card of the previous page, or null for the first page.
+     */
+    public Response getListCards(String listId, int limit, String before) {
+        RequestSpecification request = request().queryParam("limit", limit).queryParams(LIST_CARDS.params());
+        if (before != null) {
+            request.queryParam("before", before);
+        }
+        return request.get(LISTS_ENDPOINT + "/" + listId + "/cards");
+    }
+
+    /**
+     * Archives every card on a list, which empties it for reuse without deleting the list or its board.
+     */
+    public Response archiveAllCards(String listId) {
+        return request().post(LISTS_ENDPOINT + "/" + listId + "/archiveAllCards");
+    }
+
+    /**
+     * Reads one resource, e.g. "/cards/{id}".
+     *
+     * @param path The path below the base URL.
+     */
+    public Response read(String path) {
+        return request().get(path);
+    }
+
+    /**
+     * Reads up to {@value ReadCoalescer#MAX_URLS} resources in one round trip; see {@link ReadCoalescer}.
+     *
+     * @param paths The paths below the base URL, e.g. "/cards/{id}".
+     */
+    public Response readBatch(List<String> paths) {
+        return request().queryParam("urls", String.join(",", paths)).get(BATCH_ENDPOINT);
+    }
+
+    public Response deleteBoard(String boardId) {
+        return recordDeleted(ResourceLedger.BOARD, boardId, deleteBoardUnrecorded(boardId));
+    }
+
+    /**
+     * Deletes a board without writing to the shared {@link ResourceLedger}, for callers that record the delete in the
+     * ledger the board was listed in, such as the reaper.
+     */
+    public Response deleteBoardUnrecorded(String boardId) {
+        return request().delete(BOARD_ENDPOINT + "/" + boardId);
+    }
+
+    /**
+     * Reads the id of a created resource from a successful response.
+     *
+     * @param response The create response.
+     * @return The id of the created resource.
+     */
+    public static String idOf(Response response) {
+        return JsonFieldExtractor.extract(response.asByteArray(), "id");
+    }
+
+    private Response recordCreated(String type, String parentId, Response response) {
+        if (response.statusCode() == 200) {
+            ResourceLedger.shared().recordCreated(type, idOf(response), parentId, fingerprint);
+        }
+        return response;
+    }
+
+    private static Response recordDeleted(String type, String id, Response response) {
+        if (response.statusCode() == 200) {
+            ResourceLedger.shared().recordDeleted(type, id);
+        }
+        return response;
+    }
+
+    /**
+     * @return A request specification on the shared pooled transport, with the base URL and credentials applied.
+     */
+    protected RequestSpecification request() {
+        return given()
+                .spec(TrelloTransport.shared().getBaseSpec())
+                .baseUri(baseUrl)
+                .queryParams("key", apiKey, "token", apiToken);
+    }
+}
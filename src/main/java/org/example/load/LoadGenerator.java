@@ -0,0 +1,225 @@
+package org.example.load;
+
+import io.restassured.response.Response;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.example.lifecycle.TrelloOperations;
+import utilities.ConfigReader;
+import utilities.VirtualThreads;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the board, list and card operations of {@link TrelloOperations} as weighted transactions at a target
+ * arrival rate.
+ *
+ * The schedule is fixed up front by the {@link LoadProfile}: request k is due at a precomputed time, whether or not
+ * earlier requests have finished. Latency is measured from that intended start time, so time spent waiting for a
+ * free in-flight slot or for a slow response counts against the system under test instead of silently lowering the
+ * offered load (no coordinated omission). Latencies are recorded per transaction and status in HdrHistograms.
+ *
+ * Transactions that need an existing resource take it from pools filled by earlier creates; the run seeds one board
+ * and list for card traffic and deletes everything it created at the end.
+ */
+public class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final TrelloOperations operations;
+    private final LoadProfile profile;
+    private final Transaction[] weighted;
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<String> boards = new ConcurrentLinkedDeque<>();
+    private final ConcurrentLinkedDeque<String> cards = new ConcurrentLinkedDeque<>();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private String seedBoardId;
+    private String seedListId;
+
+    public LoadGenerator(TrelloOperations operations, LoadProfile profile) {
+        this.operations = operations;
+        this.profile = profile;
+        int total = profile.getMix().values().stream().mapToInt(Integer::intValue).sum();
+        this.weighted = new Transaction[total];
+        int i = 0;
+        for (Map.Entry<Transaction, Integer> entry : profile.getMix().entrySet()) {
+            for (int w = 0; w < entry.getValue(); w++) {
+                weighted[i++] = entry.getKey();
+            }
+        }
+    }
+
+    /**
+     * Runs the whole profile and returns once every scheduled request has completed and the created resources have
+     * been deleted.
+     *
+     * @return The achieved throughput in completed requests per second.
+     */
+    public double run() throws InterruptedException {
+        seedBoardId = TrelloOperations.idOf(expectOk(operations.createBoard("Load Board")));
+        seedListId = TrelloOperations.idOf(expectOk(operations.createList(seedBoardId, "Load List")));
+
+        Semaphore inFlight = new Semaphore(profile.getMaxInFlight());
+        ExecutorService executor = VirtualThreads.newExecutor("load", profile.getMaxInFlight());
+        long start = System.nanoTime();
+        long scheduled = 0;
+        try {
+            long offset;
+            while ((offset = profile.intendedStartNanos(scheduled)) >= 0) {
+                long intendedStart = start + offset;
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                // Blocking here delays later sends, but their latency still counts from their own intended start
+                inFlight.acquire();
+                Transaction transaction = weighted[ThreadLocalRandom.current().nextInt(weighted.length)];
+                executor.execute(() -> {
+                    try {
+                        execute(transaction, intendedStart);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+                scheduled++;
+            }
+            inFlight.acquire(profile.getMaxInFlight());
+        } finally {
+            executor.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        cleanUp();
+        return completed.sum() / (elapsed / 1e9);
+    }
+
+    private void execute(Transaction transaction, long intendedStart) {
+        String label = transaction.getLabel();
+        int status;
+        try {
+            Sent sent = send(transaction);
+            status = sent.response.statusCode();
+            label = sent.transaction.getLabel();
+        } catch (RuntimeException e) {
+            status = -1;
+        }
+        long latency = System.nanoTime() - intendedStart;
+        histograms.computeIfAbsent(label + " " + (status < 0 ? "ERR" : status),
+                key -> new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3)).recordValue(Math.min(latency, HIGHEST_TRACKABLE_NANOS));
+        completed.increment();
+        if (status != 200) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Sends one transaction. Transactions whose pool is empty fall back to the matching create so the offered load
+     * stays the same; the fallback is reported under the create.
+     */
+    private Sent send(Transaction transaction) {
+        switch (transaction) {
+            case CREATE_BOARD:
+                return createBoard();
+            case CREATE_LIST:
+                return new Sent(transaction, operations.createList(seedBoardId, "Load List"));
+            case CREATE_CARD:
+                return createCard();
+            case UPDATE_CARD: {
+                String cardId = cards.peekLast();
+                return cardId == null ? createCard()
+                        : new Sent(transaction, operations.updateCard(cardId, seedListId, "Trello Card Updated", "blue"));
+            }
+            case DELETE_CARD: {
+                String cardId = cards.pollFirst();
+                return cardId == null ? createCard() : new Sent(transaction, operations.deleteCard(cardId));
+            }
+            case DELETE_BOARD: {
+                String boardId = boards.pollFirst();
+                return boardId == null ? createBoard() : new Sent(transaction, operations.deleteBoard(boardId));
+            }
+            default:
+                throw new IllegalStateException("Unhandled transaction " + transaction);
+        }
+    }
+
+    private Sent createBoard() {
+        Response response = operations.createBoard("Load Board");
+        if (response.statusCode() == 200) {
+            boards.addLast(TrelloOperations.idOf(response));
+        }
+        return new Sent(Transaction.CREATE_BOARD, response);
+    }
+
+    private Sent createCard() {
+        Response response = operations.createCard(seedListId, "Load Card");
+        if (response.statusCode() == 200) {
+            cards.addLast(TrelloOperations.idOf(response));
+        }
+        return new Sent(Transaction.CREATE_CARD, response);
+    }
+
+    private void cleanUp() {
+        String boardId;
+        while ((boardId = boards.pollFirst()) != null) {
+            operations.deleteBoard(boardId);
+        }
+        operations.deleteBoard(seedBoardId);
+    }
+
+    private static Response expectOk(Response response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Load setup failed with status " + response.statusCode());
+        }
+        return response;
+    }
+
+    /**
+     * Prints p50/p90/p99/p99.9 per transaction and status, plus the overall throughput.
+     *
+     * @param throughput The achieved throughput returned by {@link #run()}.
+     */
+    public void printReport(double throughput) {
+        System.out.printf("%-22s %8s %10s %10s %10s %10s %10s%n", "transaction status", "count", "p50 ms", "p90 ms",
+                "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            Histogram h = entry.getValue();
+            System.out.printf("%-22s %8d %10.2f %10.2f %10.2f %10.2f %10.2f%n", entry.getKey(), h.getTotalCount(),
+                    h.getValueAtPercentile(50) / 1e6, h.getValueAtPercentile(90) / 1e6, h.getValueAtPercentile(99) / 1e6,
+                    h.getValueAtPercentile(99.9) / 1e6, h.getMaxValue() / 1e6);
+        }
+        System.out.printf("%d requests, %d errors, achieved %.1f req/s (target %.1f req/s)%n",
+                completed.sum(), errors.sum(), throughput, profile.getTargetRate());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        TrelloOperations operations = new TrelloOperations(ConfigReader.getBaseUrl(),
+                ConfigReader.getProperty("APIKey"), ConfigReader.getProperty("APIToken"));
+        LoadProfile profile = LoadProfile.fromConfig();
+        System.out.println("Load profile: " + profile);
+
+        LoadGenerator generator = new LoadGenerator(operations, profile);
+        generator.printReport(generator.run());
+    }
+
+    /**
+     * The transaction that was actually sent and its response.
+     */
+    private static final class Sent {
+        final Transaction transaction;
+        final Response response;
+
+        Sent(Transaction transaction, Response response) {
+            this.transaction = transaction;
+            this.response = response;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.load;
+
+import utilities.ConfigReader;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The shape of one load run: target arrival rate, ramp-up and steady-state durations, the cap on requests in flight
+ * and the weighted transaction mix.
+ *
+ * Arrivals follow an open model: the rate ramps linearly from 0 to the target over the ramp-up period, then stays at
+ * the target for the steady-state period, regardless of how fast responses come back.
+ */
+public class LoadProfile {
+
+    private final double targetRate;
+    private final long rampUpNanos;
+    private final long steadyNanos;
+    private final int maxInFlight;
+    private final Map<Transaction, Integer> mix;
+
+    public LoadProfile(double targetRate, long rampUpMillis, long steadyMillis, int maxInFlight, Map<Transaction, Integer> mix) {
+        if (targetRate <= 0) {
+            throw new IllegalArgumentException("Target rate must be positive: " + targetRate);
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in-flight requests must be positive: " + maxInFlight);
+        }
+        for (Map.Entry<Transaction, Integer> entry : mix.entrySet()) {
+            if (entry.getValue() < 0) {
+                throw new IllegalArgumentException("Transaction weight must not be negative: "
+                        + entry.getKey().getLabel() + ":" + entry.getValue());
+            }
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("Transaction mix must have a positive total weight: " + describe(mix));
+        }
+        this.targetRate = targetRate;
+        this.rampUpNanos = rampUpMillis * 1_000_000L;
+        this.steadyNanos = steadyMillis * 1_000_000L;
+        this.maxInFlight = maxInFlight;
+        this.mix = mix;
+    }
+
+    /**
+     * Reads the profile from "LoadTargetRate" (requests/s), "LoadRampUpSeconds", "LoadSteadySeconds",
+     * "LoadMaxInFlight" and "LoadMix" (e.g. "createCard:5,updateCard:3,deleteCard:2").
+     *
+     * @return The configured profile.
+     */
+    public static LoadProfile fromConfig() {
+        return new LoadProfile(
+                ConfigReader.getDouble("LoadTargetRate", 20),
+                ConfigReader.getLong("LoadRampUpSeconds", 5) * 1000,
+                ConfigReader.getLong("LoadSteadySeconds", 30) * 1000,
+                (int) ConfigReader.getLong("LoadMaxInFlight", 64),
+                parseMix(ConfigReader.getProperty("LoadMix", "createCard:5,updateCard:3,deleteCard:2")));
+    }
+
+    static Map<Transaction, Integer> parseMix(String value) {
+        Map<Transaction, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            try {
+                mix.put(Transaction.byName(parts[0].trim()), parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Transaction weight is not a number: " + entry.trim(), e);
+            }
+        }
+        return mix;
+    }
+
+    private static String describe(Map<Transaction, Integer> mix) {
+        StringBuilder description = new StringBuilder();
+        mix.forEach((transaction, weight) -> description.append(description.length() == 0 ? "" : ",")
+                .append(transaction.getLabel()).append(':').append(weight));
+        return description.toString();
+    }
+
+    /**
+     * Computes when the k-th request (0-based) should start, relative to the start of the run.
+     *
+     * @param k The request index.
+     * @return The intended start offset in nanoseconds, or -1 if the run is over by then.
+     */
+    public long intendedStartNanos(long k) {
+        double perNano = targetRate / 1e9;
+        double rampArrivals = perNano * rampUpNanos / 2;
+        double offset;
+        if (k < rampArrivals) {
+            // N(t) = rate * t^2 / (2 * rampUp) during the ramp, solved for t
+            offset = Math.sqrt(2.0 * rampUpNanos * k / perNano);
+        } else {
+            offset = rampUpNanos + (k - rampArrivals) / perNano;
+        }
+        return offset < rampUpNanos + steadyNanos ? (long) offset : -1;
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    public long getRampUpNanos() {
+        return rampUpNanos;
+    }
+
+    public long getSteadyNanos() {
+        return steadyNanos;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public Map<Transaction, Integer> getMix() {
+        return mix;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f req/s, ramp-up %d s, steady %d s, max in flight %d, mix %s",
+                targetRate, rampUpNanos / 1_000_000_000L, steadyNanos / 1_000_000_000L, maxInFlight, mix);
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.load;
+
+/**
+ * The operations of the CRUD chain that the load generator can drive.
+ */
+public enum Transaction {
+    CREATE_BOARD("createBoard"),
+    CREATE_LIST("createList"),
+    CREATE_CARD("createCard"),
+    UPDATE_CARD("updateCard"),
+    DELETE_CARD("deleteCard"),
+    DELETE_BOARD("deleteBoard");
+
+    private final String label;
+
+    Transaction(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @param label The camel-case name used in the configuration, e.g. "createCard".
+     * @return The matching transaction.
+     */
+    public static Transaction byName(String label) {
+        for (Transaction transaction : values()) {
+            if (transaction.label.equalsIgnoreCase(label)) {
+                return transaction;
+            }
+        }
+        throw new IllegalArgumentException("Unknown transaction: " + label);
+    }
+}
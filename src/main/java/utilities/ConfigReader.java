@@ -1,15 +1,21 @@
 package utilities;
 
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
+import utilities.stub.TrelloStubServer;
+
 public class ConfigReader {
 
     // Static instance to hold properties across the class
     private static Properties properties;
 
+    // Run-state namespace backing the deprecated setProperty
+    private static final String DEFAULT_NAMESPACE = "default";
+
     static {
         // Static block that runs before any other code
         String dosyaYolu = "configuration.properties";
@@ -31,25 +37,98 @@ public class ConfigReader {
      * @return The value associated with the key, or null if the key is not found.
      */
     public static String getProperty(String key) {
-        return properties.getProperty(key);
+        String value = properties.getProperty(key);
+        if (value != null) {
+            return value;
+        }
+        // Only setProperty writes run state here and it starts the store, so a store that is not running has nothing
+        RunStateStore store = RunStateStore.sharedIfStarted();
+        return store == null ? null : store.namespace(DEFAULT_NAMESPACE).get(key);
+    }
+
+    /**
+     * Gets the value associated with the given key, falling back to a default when the key is not set.
+     *
+     * @param key          The key to look up in the properties.
+     * @param defaultValue The value to return if the key is not found.
+     * @return The value associated with the key, or the default value.
+     */
+    public static String getProperty(String key, String defaultValue) {
+        return properties.getProperty(key, defaultValue);
+    }
+
+    /**
+     * Gets the value associated with the given key as a long.
+     *
+     * @param key          The key to look up in the properties.
+     * @param defaultValue The value to return if the key is not found.
+     * @return The parsed value, or the default value.
+     */
+    public static long getLong(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Long.parseLong(value.trim());
+    }
+
+    /**
+     * Gets the value associated with the given key as a double.
+     *
+     * @param key          The key to look up in the properties.
+     * @param defaultValue The value to return if the key is not found.
+     * @return The parsed value, or the default value.
+     */
+    public static double getDouble(String key, double defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Double.parseDouble(value.trim());
     }
 
     /**
-     * Sets the value for the given key in the properties and updates the configuration file.
+     * Reads the Trello credentials. "TrelloCredentials" lists several pairs as "key:token,key:token"; without it the
+     * single "APIKey"/"APIToken" pair is used.
+     *
+     * @return The configured credential pairs, in configuration order.
+     */
+    public static List<Credential> getCredentials() {
+        String pairs = properties.getProperty("TrelloCredentials");
+        if (pairs == null || pairs.isBlank()) {
+            return List.of(new Credential(getProperty("APIKey"), getProperty("APIToken")));
+        }
+        List<Credential> credentials = new ArrayList<>();
+        for (String pair : pairs.split(",")) {
+            int colon = pair.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("TrelloCredentials entries must look like key:token");
+            }
+            credentials.add(new Credential(pair.substring(0, colon).trim(), pair.substring(colon + 1).trim()));
+        }
+        return credentials;
+    }
+
+    /**
+     * Resolves the Trello base URL. When "TrelloBaseUrl" is "stub" or "stub:port", the embedded
+     * {@link TrelloStubServer} is started on first use and its URL is returned instead.
+     *
+     * @return The base URL that API requests should be sent to.
+     */
+    public static String getBaseUrl() {
+        String baseUrl = properties.getProperty("TrelloBaseUrl");
+        if (baseUrl != null && baseUrl.startsWith("stub")) {
+            int port = baseUrl.startsWith("stub:") ? Integer.parseInt(baseUrl.substring(5).trim()) : 0;
+            return TrelloStubServer.shared(port).getBaseUrl();
+        }
+        return baseUrl;
+    }
+
+    /**
+     * Sets the value for the given key in the default namespace of the {@link RunStateStore}.
+     * The configuration file is no longer rewritten; values set here are visible through {@link #getProperty(String)}
+     * for keys that are not part of the static configuration.
      *
      * @param key   The key for which the value is set.
      * @param value The value to be set for the key.
+     * @deprecated Use a {@link RunStateStore} namespace to pass ids between steps.
      */
+    @Deprecated
     public static void setProperty(String key, String value) {
-        try {
-            // Write the updated properties to the configuration file
-            FileOutputStream fos = new FileOutputStream("configuration.properties");
-            properties.setProperty(key, value);
-            properties.store(fos, null);
-            fos.close();
-        } catch (IOException e) {
-            // Handle exception if there is an error while setting the property
-            System.out.println("Error while setting property: " + e.getMessage());
-        }
+        RunStateStore.shared().namespace(DEFAULT_NAMESPACE).put(key, value);
     }
 }
@@ -0,0 +1,72 @@
+package utilities;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+
+/**
+ * One Trello API key/token pair.
+ *
+ * The fingerprint identifies the pair in logs and resource ledgers without revealing the token: it is the first
+ * 8 hex digits of the SHA-256 of "key:token".
+ */
+public final class Credential {
+
+    private final String apiKey;
+    private final String apiToken;
+    private final String fingerprint;
+
+    public Credential(String apiKey, String apiToken) {
+        this.apiKey = apiKey;
+        this.apiToken = apiToken;
+        this.fingerprint = fingerprint(apiKey, apiToken);
+    }
+
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    public String getApiToken() {
+        return apiToken;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @param apiKey   The API key.
+     * @param apiToken The API token.
+     * @return The fingerprint of the pair.
+     */
+    public static String fingerprint(String apiKey, String apiToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((apiKey + ":" + apiToken).getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(8);
+            for (int i = 0; i < 4; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Credential && Objects.equals(((Credential) other).apiKey, apiKey)
+                && Objects.equals(((Credential) other).apiToken, apiToken);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(apiKey, apiToken);
+    }
+
+    @Override
+    public String toString() {
+        return "credential " + fingerprint;
+    }
+}
@@ -0,0 +1,311 @@
+package utilities;
+
+import utilities.ids.ObjectIdCodec;
+import utilities.ids.ResourceRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An append-only record of every Trello resource a run creates and deletes, so resources that a failed or crashed
+ * run left behind can be found and cleaned up later.
+ *
+ * Each process writes its own file, "run-&lt;start millis&gt;-&lt;pid&gt;.log" in "LedgerDir" (default "ledger"),
+ * with one line per event: "C &lt;type&gt; &lt;id&gt; [parentId] [@credential]" when a create succeeds and
+ * "D &lt;type&gt; &lt;id&gt;" when a delete succeeds. The credential is the {@link Credential#getFingerprint()
+ * fingerprint} of the key/token pair that created the resource, so it can be deleted with the same pair later. Lines
+ * go straight to the file with a single write each, so they survive the JVM crashing; "LedgerFsync=true" additionally
+ * forces them to disk. On a clean shutdown the shared ledger removes its file if nothing is outstanding, so only runs
+ * that leaked resources leave a file behind.
+ *
+ * Besides the file, the ledger keeps the events it writes in a {@link ResourceRegistry}, which stores ids as
+ * primitives ("IdStoreOffHeap=true" moves it off the heap), so long scale runs can track millions of resources
+ * without millions of Strings; reading a ledger file back uses the same structure.
+ */
+public class ResourceLedger implements AutoCloseable {
+
+    public static final String BOARD = "board";
+    public static final String LIST = "list";
+    public static final String CARD = "card";
+
+    private static final String FILE_PREFIX = "run-";
+    private static final String FILE_SUFFIX = ".log";
+
+    private static ResourceLedger shared;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final boolean fsync;
+    private final ResourceRegistry registry = newRegistry(16);
+
+    /**
+     * Opens (or creates) a ledger file for appending.
+     *
+     * @param file  The ledger file.
+     * @param fsync Whether every line is forced to disk.
+     */
+    public ResourceLedger(Path file, boolean fsync) {
+        this.file = file;
+        this.fsync = fsync;
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            boolean torn = endsWithTornLine(file);
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (torn) {
+                // Terminate the line a crash cut off, so the next line is not glued onto it
+                channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open resource ledger " + file, e);
+        }
+    }
+
+    private static boolean endsWithTornLine(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            return reader.size() > 0 && reader.read(last, reader.size() - 1) == 1 && last.get(0) != '\n';
+        }
+    }
+
+    /**
+     * Returns this process's ledger, creating its file on first use.
+     *
+     * @return The shared ledger.
+     */
+    public static synchronized ResourceLedger shared() {
+        if (shared == null) {
+            Path dir = Paths.get(ConfigReader.getProperty("LedgerDir", "ledger"));
+            String name = FILE_PREFIX + System.currentTimeMillis() + "-" + ProcessHandle.current().pid() + FILE_SUFFIX;
+            shared = new ResourceLedger(dir.resolve(name), Boolean.parseBoolean(ConfigReader.getProperty("LedgerFsync", "false")));
+            Runtime.getRuntime().addShutdownHook(new Thread(shared::closeAndDeleteIfSettled, "resource-ledger-shutdown"));
+        }
+        return shared;
+    }
+
+    /**
+     * @param file A ledger file.
+     * @return The shared ledger if it has been opened and writes to that file, otherwise null.
+     */
+    public static synchronized ResourceLedger sharedIfWritingTo(Path file) {
+        return shared != null && shared.file.equals(file) ? shared : null;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Records a successfully created resource.
+     *
+     * @param type     The resource type, e.g. {@link #BOARD}.
+     * @param id       The resource id.
+     * @param parentId The id of the containing resource, or null for boards.
+     */
+    public void recordCreated(String type, String id, String parentId) {
+        recordCreated(type, id, parentId, null);
+    }
+
+    /**
+     * Records a successfully created resource together with the credential pair that created it.
+     *
+     * @param type        The resource type, e.g. {@link #BOARD}.
+     * @param id          The resource id.
+     * @param parentId    The id of the containing resource, or null for boards.
+     * @param fingerprint The fingerprint of the creating credential pair, or null if unknown.
+     */
+    public void recordCreated(String type, String id, String parentId, String fingerprint) {
+        String line = "C " + type + " " + id + (parentId == null ? "" : " " + parentId)
+                + (fingerprint == null ? "" : " @" + fingerprint) + "\n";
+        synchronized (channel) {
+            append(line);
+            if (ObjectIdCodec.isValid(id)) {
+                registry.recordCreated(type, id, ObjectIdCodec.isValid(parentId) ? parentId : null);
+            }
+        }
+    }
+
+    /**
+     * Records a successfully deleted resource (or one that turned out to be gone already).
+     *
+     * @param type The resource type.
+     * @param id   The resource id.
+     */
+    public void recordDeleted(String type, String id) {
+        synchronized (channel) {
+            append("D " + type + " " + id + "\n");
+            if (ObjectIdCodec.isValid(id)) {
+                registry.recordDeleted(id);
+            }
+        }
+    }
+
+    /**
+     * @param type A resource type, or null for any type.
+     * @return true if a resource of that type that this ledger recorded as created is still outstanding.
+     */
+    public boolean hasOutstanding(String type) {
+        synchronized (channel) {
+            return registry.hasOutstanding(type);
+        }
+    }
+
+    private void append(String line) {
+        ByteBuffer bytes = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        try {
+            // APPEND mode makes each write land at the end of the file, even with several writers
+            synchronized (channel) {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                if (fsync) {
+                    channel.force(false);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error while writing resource ledger: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Error while closing resource ledger: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closes the ledger and removes its file when every resource it lists has been deleted again.
+     */
+    private void closeAndDeleteIfSettled() {
+        close();
+        try {
+            // Only this process writes its own ledger, so what it recorded is everything the file holds
+            if (!hasOutstanding(null)) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            System.out.println("Error while removing resource ledger: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads a ledger file and returns the resources that were created but never deleted. Lists and cards whose board
+     * (or list) was deleted count as deleted too, since Trello deletes them along with it.
+     *
+     * @param file The ledger file.
+     * @return Outstanding resource ids mapped to their type, in creation order.
+     * @throws IOException If the file cannot be read.
+     */
+    public static Map<String, String> outstanding(Path file) throws IOException {
+        ResourceRegistry registry = newRegistry((int) Math.min(Integer.MAX_VALUE, Files.size(file) / 40));
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            lines.forEach(line -> {
+                String[] parts = line.split(" ");
+                // A torn last line from a crash has fewer parts or a cut-off id and is ignored
+                if (parts.length < 3 || !ObjectIdCodec.isValid(parts[2])) {
+                    return;
+                }
+                if ("C".equals(parts[0])) {
+                    registry.recordCreated(parts[1], parts[2],
+                            parts.length > 3 && ObjectIdCodec.isValid(parts[3]) ? parts[3] : null);
+                } else if ("D".equals(parts[0])) {
+                    registry.recordDeleted(parts[2]);
+                }
+            });
+        }
+        Map<String, String> outstanding = new LinkedHashMap<>();
+        registry.forEachOutstanding(outstanding::put);
+        return outstanding;
+    }
+
+    private static ResourceRegistry newRegistry(int expectedSize) {
+        return new ResourceRegistry(expectedSize,
+                Boolean.parseBoolean(ConfigReader.getProperty("IdStoreOffHeap", "false").trim()));
+    }
+
+    /**
+     * Reads which credential pair created each resource of a ledger file.
+     *
+     * @param file The ledger file.
+     * @return Resource ids mapped to the fingerprint of their creating credential; resources recorded without one
+     *         are missing.
+     * @throws IOException If the file cannot be read.
+     */
+    public static Map<String, String> creators(Path file) throws IOException {
+        Map<String, String> creators = new HashMap<>();
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            lines.forEach(line -> {
+                String[] parts = line.split(" ");
+                String last = parts[parts.length - 1];
+                if (parts.length > 3 && "C".equals(parts[0]) && parts[2].length() == 24 && last.startsWith("@")) {
+                    creators.put(parts[2], last.substring(1));
+                }
+            });
+        }
+        return creators;
+    }
+
+    /**
+     * Lists the ledger files in a directory.
+     *
+     * @param dir The ledger directory.
+     * @return The ledger files, oldest first; empty if the directory does not exist.
+     * @throws IOException If the directory cannot be listed.
+     */
+    public static List<Path> listLedgers(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().startsWith(FILE_PREFIX)
+                            && f.getFileName().toString().endsWith(FILE_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Tells whether the process that wrote a ledger file is still running, i.e. whether its resources may still be
+     * in use.
+     *
+     * @param file The ledger file.
+     * @return true if the writing process is alive.
+     */
+    public static boolean isOwnerAlive(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            String[] parts = name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()).split("-");
+            long startMillis = Long.parseLong(parts[0]);
+            Optional<ProcessHandle> owner = ProcessHandle.of(Long.parseLong(parts[1]));
+            if (owner.isEmpty() || !owner.get().isAlive()) {
+                return false;
+            }
+            // A process that started after the ledger was created only reused the pid
+            return owner.get().info().startInstant()
+                    .map(started -> started.toEpochMilli() <= startMillis)
+                    .orElse(true);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package utilities;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the ids that test steps hand to each other (board, list and card ids) while a run is in progress.
+ *
+ * Values live in concurrent maps, one per namespace, so many runs or threads can share a JVM without seeing each
+ * other's ids. Writes never touch the disk directly: a background task periodically writes a snapshot of all
+ * namespaces to "RunStateFile" (default "run-state.properties") by writing a temp file and renaming it over the
+ * previous one, and only when something changed since the last flush. Static configuration such as APIKey stays in
+ * {@link ConfigReader} and is never written.
+ */
+public final class RunStateStore implements AutoCloseable {
+
+    private static RunStateStore shared;
+
+    private final Path file;
+    private final Map<String, Namespace> namespaces = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final ScheduledExecutorService flusher;
+    private long flushedVersion;
+
+    /**
+     * Creates a store that flushes to the given file.
+     *
+     * @param file            The snapshot file.
+     * @param flushIntervalMs How often to flush, in milliseconds.
+     */
+    public RunStateStore(Path file, long flushIntervalMs) {
+        this.file = file;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "run-state-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the process-wide store, configured by "RunStateFile" and "RunStateFlushMillis".
+     *
+     * @return The shared store.
+     */
+    public static synchronized RunStateStore shared() {
+        if (shared == null) {
+            shared = new RunStateStore(Paths.get(ConfigReader.getProperty("RunStateFile", "run-state.properties")),
+                    ConfigReader.getLong("RunStateFlushMillis", 1000));
+            Runtime.getRuntime().addShutdownHook(new Thread(shared::close, "run-state-shutdown"));
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the process-wide store if something has started it, without starting it.
+     *
+     * @return The shared store, or null.
+     */
+    public static synchronized RunStateStore sharedIfStarted() {
+        return shared;
+    }
+
+    /**
+     * Returns the namespace with the given name, creating it on first use.
+     *
+     * @param name The namespace name.
+     * @return The namespace.
+     */
+    public Namespace namespace(String name) {
+        return namespaces.computeIfAbsent(name, Namespace::new);
+    }
+
+    /**
+     * Creates a namespace with a unique name for one run.
+     *
+     * @param prefix A readable prefix, usually the test class name.
+     * @return The new namespace.
+     */
+    public Namespace newRun(String prefix) {
+        return namespace(prefix + "-" + UUID.randomUUID().toString().substring(0, 8));
+    }
+
+    /**
+     * Returns the namespace that belongs to the calling thread.
+     *
+     * @return The namespace.
+     */
+    public Namespace forCurrentThread() {
+        return namespace("thread-" + Thread.currentThread().getId());
+    }
+
+    /**
+     * Drops a namespace, e.g. once its run has finished.
+     *
+     * @param name The namespace name.
+     */
+    public void remove(String name) {
+        if (namespaces.remove(name) != null) {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Writes a snapshot of all namespaces if anything changed since the last flush.
+     *
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public synchronized void flush() throws IOException {
+        long current = version.get();
+        if (current == flushedVersion) {
+            return;
+        }
+        Properties snapshot = new Properties();
+        for (Namespace namespace : namespaces.values()) {
+            namespace.values.forEach((key, value) -> snapshot.setProperty(namespace.name + "." + key, value));
+        }
+
+        Path absolute = file.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            snapshot.store(out, "Run state snapshot");
+        }
+        try {
+            Files.move(temp, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+        }
+        flushedVersion = current;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.out.println("Error while flushing run state: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the background flusher and writes a final snapshot.
+     */
+    @Override
+    public void close() {
+        flusher.shutdownNow();
+        flushQuietly();
+    }
+
+    /**
+     * The ids of one run or thread.
+     */
+    public final class Namespace {
+
+        private final String name;
+        private final Map<String, String> values = new ConcurrentHashMap<>();
+
+        private Namespace(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @param key The key to look up.
+         * @return The stored value, or null if the key is not set.
+         */
+        public String get(String key) {
+            return values.get(key);
+        }
+
+        /**
+         * Stores a value; it reaches the snapshot file with the next flush.
+         *
+         * @param key   The key.
+         * @param value The value.
+         */
+        public void put(String key, String value) {
+            values.put(key, value);
+            version.incrementAndGet();
+        }
+    }
+}
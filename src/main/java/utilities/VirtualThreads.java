@@ -0,0 +1,49 @@
+package utilities;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates executors for blocking, I/O-bound work.
+ *
+ * On Java 21+ this is a virtual-thread-per-task executor. The project still compiles for Java 17, so the factory
+ * is looked up reflectively and, when it is missing, a fixed pool of daemon platform threads is used instead.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @param name          The thread name prefix used for the platform-thread fallback.
+     * @param fallbackSize  The pool size used for the platform-thread fallback.
+     * @return A new executor; the caller is responsible for shutting it down.
+     */
+    public static ExecutorService newExecutor(String name, int fallbackSize) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newFixedThreadPool(Math.max(1, fallbackSize), runnable -> {
+                Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * @return true if the running JVM supports virtual threads.
+     */
+    public static boolean isAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package utilities.cassette;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
+import utilities.ConfigReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Records what the real Trello API answers and replays it later without any network.
+ *
+ * "CassetteMode" selects the mode: "off" (default), "record" or "replay"; "CassetteFile" is the cassette path
+ * (default cassettes/trello.cassette). The shared transport hands every request of both client stacks to the
+ * cassette: in record mode the request goes out as usual and the response is appended to the cassette, in replay mode
+ * the response comes straight from the cassette and nothing is sent. Requests are matched by {@link CassetteKey}
+ * (method, path and sorted query without key and token, with ids replaced by their order of appearance), and a
+ * request that was never recorded fails instead of falling through to the network.
+ */
+public class Cassette implements AutoCloseable {
+
+    public enum Mode { OFF, RECORD, REPLAY }
+
+    private static Cassette shared;
+
+    private final Mode mode;
+    private final CassetteWriter writer;
+    private final CassetteReader reader;
+
+    private Cassette(Mode mode, CassetteWriter writer, CassetteReader reader) {
+        this.mode = mode;
+        this.writer = writer;
+        this.reader = reader;
+    }
+
+    /**
+     * Opens a cassette for recording; an existing file is replaced.
+     *
+     * @param file The cassette file.
+     * @return The recording cassette; it must be closed to write the index.
+     */
+    public static Cassette record(Path file) {
+        return new Cassette(Mode.RECORD, new CassetteWriter(file), null);
+    }
+
+    /**
+     * Maps a recorded cassette for replay.
+     *
+     * @param file The cassette file.
+     * @return The replaying cassette.
+     * @throws IOException If the file is missing, unfinished or not a cassette.
+     */
+    public static Cassette replay(Path file) throws IOException {
+        return new Cassette(Mode.REPLAY, null, new CassetteReader(file));
+    }
+
+    /**
+     * Returns the cassette selected by the configuration, opening it on first use.
+     *
+     * @return The shared cassette, or null if "CassetteMode" is off.
+     */
+    public static synchronized Cassette shared() {
+        if (shared == null) {
+            Mode mode = Mode.valueOf(ConfigReader.getProperty("CassetteMode", "off").trim().toUpperCase());
+            Path file = Paths.get(ConfigReader.getProperty("CassetteFile", "cassettes/trello.cassette"));
+            if (mode == Mode.RECORD) {
+                shared = record(file);
+                // The index is written on close, so a recording run has to end normally to produce a usable cassette
+                Runtime.getRuntime().addShutdownHook(new Thread(shared::closeQuietly, "cassette-writer-shutdown"));
+            } else if (mode == Mode.REPLAY) {
+                try {
+                    shared = replay(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not open cassette " + file, e);
+                }
+            } else {
+                shared = new Cassette(Mode.OFF, null, null);
+            }
+        }
+        return shared.mode == Mode.OFF ? null : shared;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isReplaying() {
+        return mode == Mode.REPLAY;
+    }
+
+    /**
+     * Answers a request from the cassette.
+     *
+     * @param request The request.
+     * @return The recorded response; its body streams from the mapped file.
+     * @throws ClientProtocolException If the request was not recorded.
+     */
+    public CloseableHttpResponse replay(HttpRequest request) throws ClientProtocolException {
+        String key = CassetteKey.of(request.getRequestLine().getMethod(), uriOf(request), reader::idToken);
+        CassetteReader.Entry entry = reader.next(key);
+        if (entry == null) {
+            throw new ClientProtocolException("No recorded response for " + key);
+        }
+        ReplayedResponse response = new ReplayedResponse(entry.status);
+        InputStreamEntity entity = new InputStreamEntity(new ByteBufferInputStream(entry.body), entry.body.remaining(),
+                entry.contentType == null ? null : ContentType.parse(entry.contentType));
+        response.setEntity(entity);
+        if (entry.contentType != null) {
+            response.setHeader("Content-Type", entry.contentType);
+        }
+        return response;
+    }
+
+    /**
+     * Appends a response to the cassette. The body is read into memory once and put back as a repeatable entity,
+     * so the caller reads it as usual.
+     *
+     * @param request  The request.
+     * @param response The response, with its body not yet read.
+     * @throws IOException If the body cannot be read or the cassette cannot be written.
+     */
+    public void record(HttpRequest request, HttpResponse response) throws IOException {
+        HttpEntity entity = response.getEntity();
+        byte[] body = entity == null ? new byte[0] : EntityUtils.toByteArray(entity);
+        String contentType = entity == null || entity.getContentType() == null ? null : entity.getContentType().getValue();
+        if (entity != null) {
+            ByteArrayEntity buffered = new ByteArrayEntity(body);
+            buffered.setContentType(entity.getContentType());
+            response.setEntity(buffered);
+        }
+        String key = CassetteKey.of(request.getRequestLine().getMethod(), uriOf(request), writer::idToken);
+        writer.append(key, response.getStatusLine().getStatusCode(), contentType, body);
+    }
+
+    /**
+     * Starts replaying every key from its first recorded response again.
+     */
+    public void rewind() {
+        if (reader != null) {
+            reader.rewind();
+        }
+    }
+
+    private static String uriOf(HttpRequest request) {
+        return request instanceof HttpUriRequest
+                ? ((HttpUriRequest) request).getURI().toString()
+                : request.getRequestLine().getUri();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            System.out.println("Error while closing cassette: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A response built from a cassette entry; there is no connection to release.
+     */
+    private static final class ReplayedResponse extends BasicHttpResponse implements CloseableHttpResponse {
+
+        ReplayedResponse(int status) {
+            super(HttpVersion.HTTP_1_1, status, null);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Reads a slice of the mapped cassette without copying it first.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, read);
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
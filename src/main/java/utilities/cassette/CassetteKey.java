@@ -0,0 +1,96 @@
+package utilities.cassette;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Builds the lookup key of a request: "METHOD /path?sorted&query".
+ *
+ * The key and token parameters are dropped, so a cassette recorded with one set of credentials replays with any
+ * other, and every 24-character hex id in the path or in a parameter value is passed through an id mapper, so the
+ * key does not depend on the ids a particular run happened to get.
+ */
+public final class CassetteKey {
+
+    private CassetteKey() {
+    }
+
+    /**
+     * @param method   The HTTP method.
+     * @param uri      The request URI, absolute or starting with the path.
+     * @param idMapper Maps an id to the token that stands for it in the key.
+     * @return The normalised key.
+     */
+    public static String of(String method, String uri, Function<String, String> idMapper) {
+        int pathStart = 0;
+        int scheme = uri.indexOf("://");
+        if (scheme >= 0) {
+            pathStart = uri.indexOf('/', scheme + 3);
+            if (pathStart < 0) {
+                pathStart = uri.length();
+            }
+        }
+        int queryStart = uri.indexOf('?', pathStart);
+        String path = uri.substring(pathStart, queryStart < 0 ? uri.length() : queryStart);
+
+        StringBuilder key = new StringBuilder(uri.length()).append(method).append(' ');
+        String[] segments = path.split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            if (i > 0) {
+                key.append('/');
+            }
+            key.append(isId(segments[i]) ? idMapper.apply(segments[i]) : segments[i]);
+        }
+        if (queryStart >= 0) {
+            String[] params = uri.substring(queryStart + 1).split("&");
+            Arrays.sort(params);
+            char separator = '?';
+            for (String param : params) {
+                if (param.isEmpty() || param.startsWith("key=") || param.startsWith("token=")) {
+                    continue;
+                }
+                int eq = param.indexOf('=');
+                String value = eq < 0 ? "" : param.substring(eq + 1);
+                key.append(separator).append(isId(value) ? param.substring(0, eq + 1) + idMapper.apply(value) : param);
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * @param value A path segment or parameter value.
+     * @return true if it is a 24-character hex Trello id.
+     */
+    public static boolean isId(String value) {
+        if (value.length() != 24) {
+            return false;
+        }
+        for (int i = 0; i < 24; i++) {
+            if (Character.digit(value.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the key's UTF-8 bytes, as stored in the cassette index.
+     *
+     * @param key The key.
+     * @return The hash; never 0, which marks empty index slots.
+     */
+    static long hash(byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    static byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+}
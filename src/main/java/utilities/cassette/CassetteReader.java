@@ -0,0 +1,156 @@
+package utilities.cassette;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves responses from a memory-mapped cassette file.
+ *
+ * Layout (big-endian):
+ * <pre>
+ * header     int magic "TCAS", int version, long indexOffset, int slotCount, long idTableOffset, int keyCount
+ * entries    int status, short typeLength, type, int bodyLength, body      (one per recorded response)
+ * keys       int keyLength, key, int count, long entryOffset * count     (one per distinct request key)
+ * index      long keyHash, long keyOffset                                 (slotCount slots, linear probing)
+ * id table   int count, (24-byte id, int ordinal) * count
+ * </pre>
+ * The file is mapped, not read: a lookup hashes the key, probes the index, compares the key bytes in place and
+ * returns the body as a slice of the mapping, so nothing of the cassette is parsed or copied onto the heap except the
+ * small id table. A key that was recorded several times is replayed in the recorded order, repeating the last
+ * response once they are used up.
+ */
+class CassetteReader {
+
+    static final int MAGIC = 0x54434153;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int SLOT_BYTES = 16;
+
+    private final MappedByteBuffer mapped;
+    private final long indexOffset;
+    private final int slots;
+    private final Map<String, Integer> idOrdinals = new HashMap<>();
+    private final Map<Long, AtomicInteger> played = new ConcurrentHashMap<>();
+
+    CassetteReader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Cassette larger than 2 GB: " + file);
+            }
+            // The mapping stays valid after the channel is closed
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (mapped.capacity() < HEADER_BYTES || mapped.getInt(0) != MAGIC) {
+            throw new IOException("Not a cassette: " + file);
+        }
+        if (mapped.getInt(4) != VERSION || mapped.getLong(8) == 0) {
+            throw new IOException("Unsupported or unfinished cassette: " + file);
+        }
+        indexOffset = mapped.getLong(8);
+        slots = mapped.getInt(16);
+        int idTable = (int) mapped.getLong(20);
+        int ids = mapped.getInt(idTable);
+        byte[] id = new byte[24];
+        for (int i = 0; i < ids; i++) {
+            int at = idTable + 4 + i * 28;
+            mapped.get(at, id);
+            idOrdinals.put(new String(id, StandardCharsets.US_ASCII), mapped.getInt(at + 24));
+        }
+    }
+
+    /**
+     * Maps an id seen in a request to its key token, the same way {@link CassetteWriter#idToken(String)} did when
+     * recording. Replayed responses carry the recorded ids, so the ids a replay run sends are known; unknown ids are
+     * kept as they are and will simply not match.
+     */
+    String idToken(String id) {
+        Integer ordinal = idOrdinals.get(id);
+        return ordinal == null ? id : "{id" + ordinal + "}";
+    }
+
+    /**
+     * @return The number of distinct request keys.
+     */
+    int keyCount() {
+        return mapped.getInt(28);
+    }
+
+    /**
+     * Looks up the next response for a key.
+     *
+     * @param key The request key.
+     * @return The response, or null if the key was never recorded.
+     */
+    Entry next(String key) {
+        byte[] keyBytes = CassetteKey.bytes(key);
+        long hash = CassetteKey.hash(keyBytes);
+        int slot = (int) (hash & (slots - 1));
+        while (true) {
+            int at = (int) (indexOffset + (long) slot * SLOT_BYTES);
+            long slotHash = mapped.getLong(at);
+            if (slotHash == 0) {
+                return null;
+            }
+            if (slotHash == hash) {
+                int record = (int) mapped.getLong(at + 8);
+                if (keyEquals(record, keyBytes)) {
+                    int countAt = record + 4 + keyBytes.length;
+                    int count = mapped.getInt(countAt);
+                    int occurrence = played.computeIfAbsent((long) record, r -> new AtomicInteger()).getAndIncrement();
+                    int entry = (int) mapped.getLong(countAt + 4 + 8 * Math.min(occurrence, count - 1));
+                    return entryAt(entry);
+                }
+            }
+            slot = (slot + 1) & (slots - 1);
+        }
+    }
+
+    private boolean keyEquals(int record, byte[] key) {
+        if (mapped.getInt(record) != key.length) {
+            return false;
+        }
+        return mapped.slice(record + 4, key.length).equals(ByteBuffer.wrap(key));
+    }
+
+    private Entry entryAt(int offset) {
+        int status = mapped.getInt(offset);
+        int typeLength = mapped.getShort(offset + 4);
+        byte[] type = new byte[typeLength];
+        mapped.get(offset + 6, type);
+        int bodyAt = offset + 6 + typeLength;
+        int bodyLength = mapped.getInt(bodyAt);
+        return new Entry(status, typeLength == 0 ? null : new String(type, StandardCharsets.UTF_8),
+                mapped.slice(bodyAt + 4, bodyLength));
+    }
+
+    /**
+     * Starts every key from its first recorded response again.
+     */
+    void rewind() {
+        played.clear();
+    }
+
+    /**
+     * One recorded response; the body is a read-only view into the mapping.
+     */
+    static final class Entry {
+        final int status;
+        final String contentType;
+        final ByteBuffer body;
+
+        Entry(int status, String contentType, ByteBuffer body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package utilities.cassette;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends recorded responses to a cassette file and writes its index when closed.
+ *
+ * Responses are written to the file as they arrive, so only their offsets stay in memory. {@link #close()} appends
+ * the key records, the hash index and the id table, and then fills in the header; a cassette whose writer never
+ * closed has an empty header and is rejected by {@link CassetteReader}. See {@link CassetteReader} for the layout.
+ */
+class CassetteWriter implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final Map<String, List<Long>> offsetsByKey = new LinkedHashMap<>();
+    private final Map<String, Integer> idOrdinals = new LinkedHashMap<>();
+    private long position = CassetteReader.HEADER_BYTES;
+    private boolean closed;
+
+    CassetteWriter(Path file) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            writeFully(ByteBuffer.allocate(CassetteReader.HEADER_BYTES), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create cassette " + file, e);
+        }
+    }
+
+    /**
+     * Maps a recorded id to the token that stands for it in keys: "{id1}" for the first id the run used, and so on.
+     *
+     * @param id A 24-character hex id.
+     * @return Its token.
+     */
+    synchronized String idToken(String id) {
+        Integer ordinal = idOrdinals.get(id);
+        if (ordinal == null) {
+            ordinal = idOrdinals.size() + 1;
+            idOrdinals.put(id, ordinal);
+        }
+        return "{id" + ordinal + "}";
+    }
+
+    /**
+     * Appends one response.
+     *
+     * @param key         The request key, built with {@link #idToken(String)}.
+     * @param status      The response status.
+     * @param contentType The response content type, or null.
+     * @param body        The response body.
+     */
+    synchronized void append(String key, int status, String contentType, byte[] body) throws IOException {
+        if (closed) {
+            return;
+        }
+        byte[] type = (contentType == null ? "" : contentType).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer entry = ByteBuffer.allocate(4 + 2 + type.length + 4 + body.length);
+        entry.putInt(status).putShort((short) type.length).put(type).putInt(body.length).put(body).flip();
+        offsetsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(position);
+        writeFully(entry, position);
+        position += entry.capacity();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        // Key records: [int keyLength][key][int count][long offset]*
+        Map<String, Long> recordOffsets = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Long>> entry : offsetsByKey.entrySet()) {
+            byte[] key = CassetteKey.bytes(entry.getKey());
+            ByteBuffer record = ByteBuffer.allocate(4 + key.length + 4 + 8 * entry.getValue().size());
+            record.putInt(key.length).put(key).putInt(entry.getValue().size());
+            entry.getValue().forEach(record::putLong);
+            record.flip();
+            recordOffsets.put(entry.getKey(), position);
+            writeFully(record, position);
+            position += record.capacity();
+        }
+
+        // Open-addressing index at most half full: [long hash][long keyRecordOffset]
+        int slots = Integer.highestOneBit(Math.max(4, recordOffsets.size() * 2 - 1)) << 1;
+        ByteBuffer index = ByteBuffer.allocate(slots * CassetteReader.SLOT_BYTES);
+        for (Map.Entry<String, Long> entry : recordOffsets.entrySet()) {
+            long hash = CassetteKey.hash(CassetteKey.bytes(entry.getKey()));
+            int slot = (int) (hash & (slots - 1));
+            while (index.getLong(slot * CassetteReader.SLOT_BYTES) != 0) {
+                slot = (slot + 1) & (slots - 1);
+            }
+            index.putLong(slot * CassetteReader.SLOT_BYTES, hash);
+            index.putLong(slot * CassetteReader.SLOT_BYTES + 8, entry.getValue());
+        }
+        long indexOffset = position;
+        writeFully(index, position);
+        position += index.capacity();
+
+        // Id table: [int count]([24 bytes id][int ordinal])*
+        ByteBuffer ids = ByteBuffer.allocate(4 + idOrdinals.size() * 28);
+        ids.putInt(idOrdinals.size());
+        idOrdinals.forEach((id, ordinal) -> ids.put(id.getBytes(StandardCharsets.US_ASCII)).putInt(ordinal));
+        ids.flip();
+        long idTableOffset = position;
+        writeFully(ids, position);
+
+        ByteBuffer header = ByteBuffer.allocate(CassetteReader.HEADER_BYTES);
+        header.putInt(CassetteReader.MAGIC).putInt(CassetteReader.VERSION).putLong(indexOffset).putInt(slots)
+                .putLong(idTableOffset).putInt(offsetsByKey.size()).flip();
+        writeFully(header, 0);
+        channel.force(true);
+        channel.close();
+    }
+
+    private void writeFully(ByteBuffer buffer, long at) throws IOException {
+        long offset = at;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+}
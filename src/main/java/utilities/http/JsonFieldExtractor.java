@@ -0,0 +1,394 @@
+package utilities.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Reads single top-level fields out of a JSON object without building a tree.
+ *
+ * The extractor walks the UTF-8 bytes once, compares keys byte by byte against the requested field names, skips
+ * every other value (including nested objects and arrays) without materialising it, and stops as soon as all
+ * requested fields have been seen. The only objects it allocates are the returned values, so reading the id of a
+ * several-KB Trello board costs a few hundred bytes instead of a full DOM.
+ *
+ * {@link #forEachElement(InputStream, String[], Consumer)} does the same for every object of a streamed array.
+ *
+ * String values are returned unescaped; numbers, booleans and null are returned as their literal text.
+ */
+public final class JsonFieldExtractor {
+
+    private JsonFieldExtractor() {
+    }
+
+    /**
+     * @param json  The UTF-8 encoded JSON object.
+     * @param field The top-level field to read.
+     * @return The field's value, or null if the object has no such field.
+     */
+    public static String extract(byte[] json, String field) {
+        return extract(new Cursor(json, json.length, null), field);
+    }
+
+    /**
+     * Reads a field from a stream, consuming only as much of it as needed. The stream is not closed.
+     *
+     * @param json  The UTF-8 encoded JSON object.
+     * @param field The top-level field to read.
+     * @return The field's value, or null if the object has no such field.
+     */
+    public static String extract(InputStream json, String field) {
+        // Trello puts "id" first, so a small buffer usually holds everything that needs to be read
+        return extract(new Cursor(new byte[1024], 0, json), field);
+    }
+
+    /**
+     * Reads several top-level fields in one pass.
+     *
+     * @param json   The UTF-8 encoded JSON object.
+     * @param fields The fields to read.
+     * @return The values in the order of {@code fields}; missing fields are null.
+     */
+    public static String[] extract(byte[] json, String... fields) {
+        return extract(new Cursor(json, json.length, null), fields);
+    }
+
+    /**
+     * Streams a JSON array of objects and hands the requested fields of each element to an action, one element at a
+     * time. Only a fixed read buffer and the current element's values are held, so the size of the array does not
+     * matter. The stream is not closed.
+     *
+     * @param json   The UTF-8 encoded JSON array.
+     * @param fields The top-level fields to read from each element.
+     * @param action Receives the values of each element in the order of {@code fields}; missing fields are null.
+     * @return The number of bytes read from the stream.
+     */
+    public static long forEachElement(InputStream json, String[] fields, Consumer<String[]> action) {
+        Cursor cursor = new Cursor(new byte[8192], 0, json);
+        cursor.expect('[');
+        if (cursor.peekNonWhitespace() == ']') {
+            cursor.next();
+            return cursor.bytesConsumed();
+        }
+        while (true) {
+            action.accept(extract(cursor, fields, true));
+            int c = cursor.nextNonWhitespace();
+            if (c == ']') {
+                return cursor.bytesConsumed();
+            }
+            if (c != ',') {
+                throw cursor.error("Expected ',' or ']'");
+            }
+        }
+    }
+
+    private static String extract(Cursor cursor, String field) {
+        return extract(cursor, new String[]{field})[0];
+    }
+
+    static String[] extract(Cursor cursor, String[] fields) {
+        return extract(cursor, fields, false);
+    }
+
+    /**
+     * @param toEnd Whether to read up to the closing brace even after all fields were found, so the cursor can
+     *              continue with whatever follows the object.
+     */
+    private static String[] extract(Cursor cursor, String[] fields, boolean toEnd) {
+        if (fields.length > 63) {
+            throw new IllegalArgumentException("At most 63 fields can be extracted in one pass");
+        }
+        byte[][] names = new byte[fields.length][];
+        for (int i = 0; i < fields.length; i++) {
+            names[i] = fields[i].getBytes(StandardCharsets.UTF_8);
+        }
+        String[] values = new String[fields.length];
+        int remaining = fields.length;
+
+        cursor.expect('{');
+        int c = cursor.nextNonWhitespace();
+        if (c == '}') {
+            return values;
+        }
+        while (true) {
+            if (c != '"') {
+                throw cursor.error("Expected a field name");
+            }
+            int match = cursor.matchKey(names);
+            cursor.expect(':');
+            if (match >= 0 && values[match] == null) {
+                values[match] = cursor.readValue();
+                if (--remaining == 0 && !toEnd) {
+                    return values;
+                }
+            } else {
+                cursor.skipValue();
+            }
+            c = cursor.nextNonWhitespace();
+            if (c == '}') {
+                return values;
+            }
+            if (c != ',') {
+                throw cursor.error("Expected ',' or '}'");
+            }
+            c = cursor.nextNonWhitespace();
+        }
+    }
+
+    /**
+     * A forward-only view over a byte array or a stream refilled into a fixed buffer.
+     */
+    static final class Cursor {
+
+        private final InputStream in;
+        private final byte[] buffer;
+        private int limit;
+        private int pos;
+        private long consumed;
+
+        Cursor(byte[] buffer, int limit, InputStream in) {
+            this.buffer = buffer;
+            this.limit = limit;
+            this.in = in;
+        }
+
+        int next() {
+            if (pos == limit && !fill()) {
+                return -1;
+            }
+            return buffer[pos++] & 0xFF;
+        }
+
+        int peekNonWhitespace() {
+            while (true) {
+                if (pos == limit && !fill()) {
+                    return -1;
+                }
+                int c = buffer[pos] & 0xFF;
+                if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                    return c;
+                }
+                pos++;
+            }
+        }
+
+        int nextNonWhitespace() {
+            int c = peekNonWhitespace();
+            if (c >= 0) {
+                pos++;
+            }
+            return c;
+        }
+
+        void expect(char expected) {
+            if (nextNonWhitespace() != expected) {
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        /**
+         * @return The total number of bytes read so far, for throughput reporting.
+         */
+        long bytesConsumed() {
+            return consumed + pos;
+        }
+
+        private boolean fill() {
+            if (in == null) {
+                return false;
+            }
+            try {
+                consumed += limit;
+                int read = in.read(buffer, 0, buffer.length);
+                pos = 0;
+                limit = Math.max(read, 0);
+                return read > 0;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Reads a key whose opening quote has been consumed and compares it against the candidates.
+         *
+         * @return The index of the matching candidate, or -1.
+         */
+        int matchKey(byte[][] candidates) {
+            // Bit i stays set while candidate i still matches the bytes read so far
+            long alive = (1L << candidates.length) - 1;
+            int length = 0;
+            int c;
+            while ((c = next()) != '"') {
+                if (c < 0) {
+                    throw error("Unterminated field name");
+                }
+                if (c == '\\') {
+                    // Escaped keys never match; skip the escaped character
+                    next();
+                    alive = 0;
+                    continue;
+                }
+                for (int i = 0; i < candidates.length && alive != 0; i++) {
+                    if ((alive & (1L << i)) != 0 && (length >= candidates[i].length || candidates[i][length] != (byte) c)) {
+                        alive &= ~(1L << i);
+                    }
+                }
+                length++;
+            }
+            for (int i = 0; i < candidates.length; i++) {
+                if ((alive & (1L << i)) != 0 && candidates[i].length == length) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        String readValue() {
+            int c = nextNonWhitespace();
+            if (c == '"') {
+                return readString();
+            }
+            if (c == '{' || c == '[') {
+                throw error("Only scalar fields can be extracted");
+            }
+            StringBuilder literal = new StringBuilder();
+            literal.append((char) c);
+            while (true) {
+                int p = peekNonWhitespace();
+                if (p < 0 || p == ',' || p == '}' || p == ']') {
+                    break;
+                }
+                literal.append((char) next());
+            }
+            String text = literal.toString();
+            return "null".equals(text) ? null : text;
+        }
+
+        /**
+         * Reads a string whose opening quote has been consumed.
+         */
+        String readString() {
+            byte[] out = new byte[32];
+            int length = 0;
+            // Only needed once a surrogate escape shows up, since a lone surrogate has no UTF-8 encoding
+            StringBuilder text = null;
+            int c;
+            while ((c = next()) != '"') {
+                if (c < 0) {
+                    throw error("Unterminated string");
+                }
+                if (c == '\\') {
+                    int escaped = next();
+                    switch (escaped) {
+                        case 'n': c = '\n'; break;
+                        case 't': c = '\t'; break;
+                        case 'r': c = '\r'; break;
+                        case 'b': c = '\b'; break;
+                        case 'f': c = '\f'; break;
+                        case 'u': {
+                            char code = readHexChar();
+                            if (Character.isSurrogate(code)) {
+                                // Each half is kept as it is: a pair of escapes joins up in the text again, and a
+                                // lone half stays unchanged without consuming what follows it
+                                text = flush(text, out, length);
+                                text.append(code);
+                                length = 0;
+                                continue;
+                            }
+                            byte[] encoded = String.valueOf(code).getBytes(StandardCharsets.UTF_8);
+                            for (byte b : encoded) {
+                                out = ensure(out, length + 1);
+                                out[length++] = b;
+                            }
+                            continue;
+                        }
+                        default: c = escaped;
+                    }
+                }
+                out = ensure(out, length + 1);
+                out[length++] = (byte) c;
+            }
+            if (text == null) {
+                return new String(out, 0, length, StandardCharsets.UTF_8);
+            }
+            return flush(text, out, length).toString();
+        }
+
+        /**
+         * Appends the bytes read so far to the text, which they end at an escape and so at a character boundary.
+         */
+        private static StringBuilder flush(StringBuilder text, byte[] out, int length) {
+            StringBuilder flushed = text != null ? text : new StringBuilder(length + 16);
+            return flushed.append(new String(out, 0, length, StandardCharsets.UTF_8));
+        }
+
+        private char readHexChar() {
+            int code = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit(next(), 16);
+                if (digit < 0) {
+                    throw error("Invalid unicode escape");
+                }
+                code = code << 4 | digit;
+            }
+            return (char) code;
+        }
+
+        void skipValue() {
+            int c = nextNonWhitespace();
+            if (c == '"') {
+                skipString();
+            } else if (c == '{' || c == '[') {
+                int depth = 1;
+                while (depth > 0) {
+                    c = next();
+                    if (c < 0) {
+                        throw error("Unterminated container");
+                    }
+                    if (c == '"') {
+                        skipString();
+                    } else if (c == '{' || c == '[') {
+                        depth++;
+                    } else if (c == '}' || c == ']') {
+                        depth--;
+                    }
+                }
+            } else {
+                while (true) {
+                    int p = peekNonWhitespace();
+                    if (p < 0 || p == ',' || p == '}' || p == ']') {
+                        return;
+                    }
+                    next();
+                }
+            }
+        }
+
+        private void skipString() {
+            int c;
+            while ((c = next()) != '"') {
+                if (c < 0) {
+                    throw error("Unterminated string");
+                }
+                if (c == '\\') {
+                    next();
+                }
+            }
+        }
+
+        private static byte[] ensure(byte[] array, int size) {
+            if (size <= array.length) {
+                return array;
+            }
+            byte[] grown = new byte[array.length * 2];
+            System.arraycopy(array, 0, grown, 0, array.length);
+            return grown;
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at byte " + bytesConsumed());
+        }
+    }
+}
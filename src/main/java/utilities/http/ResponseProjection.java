@@ -0,0 +1,93 @@
+package utilities.http;
+
+import utilities.ConfigReader;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The part of a Trello response that a call actually reads, as the query parameters that make Trello leave out the
+ * rest.
+ *
+ * Without them a read returns the whole entity: a board comes with its prefs, label names and URLs, a card with its
+ * badges, URLs and member and label ids, although the verification reads only check one field. "fields" names the
+ * fields to return (the id is always returned), and nested collections such as the lists or labels of a board are left
+ * out with "lists=none", "labels=none" and so on. Trello documents these parameters for its GET routes only, so creates
+ * and updates are sent without a projection. Every read declares its projection once (see
+ * {@link org.example.lifecycle.TrelloOperations}) and the callers add {@link #params()} to their query.
+ *
+ * "ResponseProjection=false" turns every projection off, so full and projected runs can be compared.
+ * Instances are immutable.
+ */
+public final class ResponseProjection {
+
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(ConfigReader.getProperty("ResponseProjection", "true").trim());
+
+    private final Map<String, String> params;
+
+    private ResponseProjection(Map<String, String> params) {
+        this.params = Collections.unmodifiableMap(params);
+    }
+
+    /**
+     * @param fields The fields the caller reads; the id is returned anyway and need not be named.
+     * @return A projection onto those fields.
+     */
+    public static ResponseProjection fields(String... fields) {
+        if (fields.length == 0) {
+            throw new IllegalArgumentException("A projection needs at least one field");
+        }
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("fields", String.join(",", fields));
+        return new ResponseProjection(params);
+    }
+
+    /**
+     * @param nested Nested collections to leave out, e.g. "lists" or "labels".
+     * @return This projection plus "{nested}=none" for each of them.
+     */
+    public ResponseProjection without(String... nested) {
+        Map<String, String> extended = new LinkedHashMap<>(params);
+        for (String collection : nested) {
+            extended.put(collection, "none");
+        }
+        return new ResponseProjection(extended);
+    }
+
+    /**
+     * @return The query parameters to add to the call, or none when projections are turned off.
+     */
+    public Map<String, String> params() {
+        return ENABLED ? params : Map.of();
+    }
+
+    /**
+     * Appends the query parameters to a path, e.g. for a route inside a /batch request.
+     *
+     * @param path A path without query string.
+     * @return The path with the parameters, or the path itself when projections are turned off.
+     */
+    public String appendTo(String path) {
+        if (!ENABLED) {
+            return path;
+        }
+        StringBuilder query = new StringBuilder(path);
+        char separator = '?';
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            query.append(separator).append(param.getKey()).append('=').append(param.getValue());
+            separator = '&';
+        }
+        return query.toString();
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public String toString() {
+        return params.toString();
+    }
+}
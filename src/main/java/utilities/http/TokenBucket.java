@@ -0,0 +1,175 @@
+package utilities.http;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free token bucket that hands out send slots for one Trello key/token pair.
+ *
+ * The bucket is kept as a single "next free slot" timestamp that threads advance with compare-and-set, so taking a
+ * token never blocks on a lock: a caller reserves the next slot and then sleeps until it is due. Up to "burst" slots
+ * may lie in the past, which lets an idle bucket absorb a short burst.
+ *
+ * The rate adapts to what the server says. A 429 with Retry-After moves every later slot past the time the server
+ * asked for, so queued requests resume one by one instead of all at once. A 429 without it halves the current rate
+ * (at most once per burst, down to 1/16 of the configured rate), and every successful response adds back 5% of the
+ * configured rate, so the bucket settles just below the highest rate the server accepts.
+ */
+public class TokenBucket {
+
+    private static final int MIN_RATE_DIVISOR = 16;
+
+    private final long baseIntervalNanos;
+    private final int burst;
+    private final AtomicLong nextSlotNanos;
+    private final AtomicLong intervalNanos;
+    private final AtomicLong lastDecreaseNanos;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * @param requests The number of requests allowed per period.
+     * @param period   The period length.
+     * @param unit     The unit of {@code period}.
+     * @param burst    How many requests an idle bucket may send back to back.
+     */
+    public TokenBucket(int requests, long period, TimeUnit unit, int burst) {
+        if (requests <= 0 || period <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate limit values must be positive");
+        }
+        this.baseIntervalNanos = unit.toNanos(period) / requests;
+        this.burst = burst;
+        long now = System.nanoTime();
+        this.nextSlotNanos = new AtomicLong(now - (burst - 1) * baseIntervalNanos);
+        this.intervalNanos = new AtomicLong(baseIntervalNanos);
+        this.lastDecreaseNanos = new AtomicLong(now - unit.toNanos(period));
+    }
+
+    /**
+     * Reserves the next send slot without waiting for it.
+     *
+     * @return How many nanoseconds the caller has to wait before sending; 0 if it may send right away.
+     */
+    public long reserve() {
+        long now = System.nanoTime();
+        long interval = intervalNanos.get();
+        long slot;
+        while (true) {
+            long next = nextSlotNanos.get();
+            slot = Math.max(next, now - (burst - 1) * interval);
+            if (nextSlotNanos.compareAndSet(next, slot + interval)) {
+                break;
+            }
+        }
+        long wait = Math.max(0, slot - now);
+        acquired.increment();
+        if (wait > 0) {
+            waited.increment();
+            waitNanos.add(wait);
+        }
+        return wait;
+    }
+
+    /**
+     * Takes a token, sleeping until its slot is due.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void acquire() throws InterruptedException {
+        long wait = reserve();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Records that the server throttled a request.
+     *
+     * @param retryAfterNanos The delay the server asked for, or 0 if it did not say.
+     */
+    public void onThrottled(long retryAfterNanos) {
+        throttled.increment();
+        long now = System.nanoTime();
+        if (retryAfterNanos > 0) {
+            // The server said exactly when to continue: push every later slot past that point instead of slowing down
+            nextSlotNanos.accumulateAndGet(now + retryAfterNanos, Math::max);
+            return;
+        }
+        // Requests sent in the same burst tend to be throttled together; they count as one signal
+        long last = lastDecreaseNanos.get();
+        if (now - last >= intervalNanos.get() * burst && lastDecreaseNanos.compareAndSet(last, now)) {
+            long maxInterval = baseIntervalNanos * MIN_RATE_DIVISOR;
+            intervalNanos.updateAndGet(interval -> Math.min(maxInterval, interval * 2));
+        }
+    }
+
+    /**
+     * Records that a request went through, nudging the rate back up towards the configured one.
+     */
+    public void onSuccess() {
+        intervalNanos.updateAndGet(interval -> {
+            if (interval <= baseIntervalNanos) {
+                return interval;
+            }
+            // Additive increase of 5% of the base rate, expressed as an interval
+            double rate = 1.0 / interval + 0.05 / baseIntervalNanos;
+            return Math.max(baseIntervalNanos, (long) (1.0 / rate));
+        });
+    }
+
+    /**
+     * @return The rate the bucket currently allows, in requests per second.
+     */
+    public double getCurrentRate() {
+        return 1e9 / intervalNanos.get();
+    }
+
+    /**
+     * @return true if throttling from the server has pushed the rate below the configured one.
+     */
+    public boolean isSlowedDown() {
+        return intervalNanos.get() > baseIntervalNanos;
+    }
+
+    /**
+     * @return How long a request taking a token now would have to wait, in nanoseconds.
+     */
+    public long getBacklogNanos() {
+        return Math.max(0, nextSlotNanos.get() - System.nanoTime());
+    }
+
+    public long getAcquired() {
+        return acquired.sum();
+    }
+
+    /**
+     * @return The number of requests that had to wait for a slot.
+     */
+    public long getWaited() {
+        return waited.sum();
+    }
+
+    /**
+     * @return The total time callers were told to wait, in milliseconds.
+     */
+    public double getWaitMillis() {
+        return waitNanos.sum() / 1e6;
+    }
+
+    /**
+     * @return The number of 429 responses reported to the bucket.
+     */
+    public long getThrottled() {
+        return throttled.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("acquired=%d, waited=%d (%.1f ms total), throttled=%d, rate=%.1f/s",
+                getAcquired(), getWaited(), getWaitMillis(), getThrottled(), getCurrentRate());
+    }
+}
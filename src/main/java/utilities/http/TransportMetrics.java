@@ -0,0 +1,123 @@
+package utilities.http;
+
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSocket;
+import java.net.Socket;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts what the pooled transport does: how many requests were sent, how many new connections had to be opened for
+ * them, and how long the TCP connect plus TLS handshake of those connections took. Requests minus opened connections
+ * is the number of requests that reused a pooled connection. For gzip-compressed responses it also counts the bytes
+ * that came over the wire and the bytes they decompressed to.
+ */
+public class TransportMetrics {
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder tlsSessionsResumed = new LongAdder();
+    private final LongAdder connectNanos = new LongAdder();
+    private final LongAccumulator maxConnectNanos = new LongAccumulator(Math::max, 0);
+    private final Set<String> tlsSessionIds = ConcurrentHashMap.newKeySet();
+    private final LongAdder compressedResponses = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder decodedBytes = new LongAdder();
+
+    void recordRequest() {
+        requests.increment();
+    }
+
+    /**
+     * Records a newly opened connection.
+     *
+     * @param socket The connected socket; for TLS sockets the session id tells whether the session was resumed.
+     * @param nanos  The time spent in connect and, for TLS, the handshake.
+     */
+    void recordConnect(Socket socket, long nanos) {
+        connectionsOpened.increment();
+        connectNanos.add(nanos);
+        maxConnectNanos.accumulate(nanos);
+        if (socket instanceof SSLSocket) {
+            SSLSession session = ((SSLSocket) socket).getSession();
+            if (session != null && session.getId().length > 0
+                    && !tlsSessionIds.add(Base64.getEncoder().encodeToString(session.getId()))) {
+                tlsSessionsResumed.increment();
+            }
+        }
+    }
+
+    void recordCompressedResponse() {
+        compressedResponses.increment();
+    }
+
+    void addCompressedBytes(long bytes) {
+        compressedBytes.add(bytes);
+    }
+
+    void addDecodedBytes(long bytes) {
+        decodedBytes.add(bytes);
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getConnectionsOpened() {
+        return connectionsOpened.sum();
+    }
+
+    /**
+     * @return The number of requests that were sent over an already open connection.
+     */
+    public long getConnectionsReused() {
+        return Math.max(0, getRequests() - getConnectionsOpened());
+    }
+
+    public long getTlsSessionsResumed() {
+        return tlsSessionsResumed.sum();
+    }
+
+    /**
+     * @return The mean connect plus handshake time of opened connections in milliseconds.
+     */
+    public double getMeanConnectMillis() {
+        long opened = getConnectionsOpened();
+        return opened == 0 ? 0 : connectNanos.sum() / 1e6 / opened;
+    }
+
+    public double getMaxConnectMillis() {
+        return maxConnectNanos.get() / 1e6;
+    }
+
+    public long getCompressedResponses() {
+        return compressedResponses.sum();
+    }
+
+    /**
+     * @return The bytes of the gzip-compressed response bodies as they came over the wire.
+     */
+    public long getCompressedBytes() {
+        return compressedBytes.sum();
+    }
+
+    /**
+     * @return The bytes the gzip-compressed response bodies decompressed to.
+     */
+    public long getDecodedBytes() {
+        return decodedBytes.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("requests=%d, connections opened=%d, reused=%d, TLS sessions resumed=%d, "
+                        + "connect+handshake mean=%.2f ms max=%.2f ms, gzip responses=%d (%.1f KB on the wire for "
+                        + "%.1f KB decoded)",
+                getRequests(), getConnectionsOpened(), getConnectionsReused(), getTlsSessionsResumed(),
+                getMeanConnectMillis(), getMaxConnectMillis(), getCompressedResponses(), getCompressedBytes() / 1024.0,
+                getDecodedBytes() / 1024.0);
+    }
+}
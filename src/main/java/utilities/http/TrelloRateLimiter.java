@@ -0,0 +1,301 @@
+package utilities.http;
+
+import org.apache.http.Header;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.util.EntityUtils;
+import utilities.ConfigReader;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client-side throttling for Trello, which limits every token to 100 requests per 10 seconds.
+ *
+ * Requests are grouped by the "key" and "token" query parameters they carry, and every pair gets its own
+ * {@link TokenBucket}, shared by all threads of the process. Responses feed back into the bucket: 429 slows it down
+ * (honouring Retry-After, given either in seconds or as an HTTP date) and anything else lets it speed up again.
+ *
+ * Throttled requests are retried with jittered exponential backoff, up to "RateLimitMaxRetries" times. A 429 means
+ * Trello rejected the request without processing it, so it is retried for every method; 5xx responses are only
+ * retried for idempotent methods (GET, PUT, DELETE), since a POST may already have created something.
+ *
+ * Configured by "RateLimitRequests" per "RateLimitPeriodMillis" (100 per 10000 by default), "RateLimitBurst" and
+ * "RateLimitMaxRetries"; "RateLimitRequests=0" turns throttling off but keeps the retries. Trello's quota means nothing
+ * to the embedded stub or a server on the loopback interface, so against those the limit mirrors the stub's own
+ * "StubTokenLimit" per "StubTokenWindowMillis" instead, which is off by default.
+ */
+public class TrelloRateLimiter {
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+    private static final long BASE_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private static TrelloRateLimiter shared;
+
+    private final int requests;
+    private final long periodMillis;
+    private final int burst;
+    private final int maxRetries;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    /**
+     * @param requests     The number of requests allowed per period and credential pair, or 0 for no limit.
+     * @param periodMillis The period length in milliseconds.
+     * @param burst        How many requests an idle pair may send back to back.
+     * @param maxRetries   How many times a throttled or failed request is retried.
+     */
+    public TrelloRateLimiter(int requests, long periodMillis, int burst, int maxRetries) {
+        this.requests = requests;
+        this.periodMillis = periodMillis;
+        this.burst = burst;
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Returns the process-wide limiter built from the configuration, creating it on first use.
+     *
+     * @return The shared limiter.
+     */
+    public static synchronized TrelloRateLimiter shared() {
+        if (shared == null) {
+            boolean local = isLocal(ConfigReader.getProperty("TrelloBaseUrl", "").trim());
+            long requests = local ? ConfigReader.getLong("StubTokenLimit", 0)
+                    : ConfigReader.getLong("RateLimitRequests", 100);
+            long periodMillis = local ? ConfigReader.getLong("StubTokenWindowMillis", 10_000)
+                    : ConfigReader.getLong("RateLimitPeriodMillis", 10_000);
+            shared = new TrelloRateLimiter((int) requests, periodMillis,
+                    (int) ConfigReader.getLong("RateLimitBurst", 10),
+                    (int) ConfigReader.getLong("RateLimitMaxRetries", 5));
+        }
+        return shared;
+    }
+
+    /**
+     * @param baseUrl The configured "TrelloBaseUrl".
+     * @return true for the embedded stub and for servers on the loopback interface.
+     */
+    static boolean isLocal(String baseUrl) {
+        if (baseUrl.startsWith("stub")) {
+            return true;
+        }
+        try {
+            String host = URI.create(baseUrl).getHost();
+            return host != null && (host.equals("localhost") || host.startsWith("127.") || host.equals("[::1]"));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the bucket of one credential pair.
+     *
+     * @param apiKey   The API key.
+     * @param apiToken The API token.
+     * @return The bucket, or null if throttling is turned off.
+     */
+    public TokenBucket bucket(String apiKey, String apiToken) {
+        if (requests <= 0) {
+            return null;
+        }
+        return buckets.computeIfAbsent(apiKey + ":" + apiToken,
+                pair -> new TokenBucket(requests, periodMillis, TimeUnit.MILLISECONDS, burst));
+    }
+
+    /**
+     * Returns the bucket for the credentials in a request URI.
+     *
+     * @param uri The request URI, absolute or relative, with its query string.
+     * @return The bucket, or null if throttling is turned off.
+     */
+    public TokenBucket bucketFor(String uri) {
+        return bucket(queryParam(uri, "key"), queryParam(uri, "token"));
+    }
+
+    /**
+     * Sends a request through the bucket of its credentials, retrying it while the server throttles it.
+     *
+     * @param request The request, used for its method and URI.
+     * @param call    Sends the request once.
+     * @return The final response.
+     * @throws IOException If sending fails.
+     */
+    public <T extends HttpResponse> T execute(HttpRequest request, Call<T> call) throws IOException {
+        String method = request.getRequestLine().getMethod();
+        TokenBucket bucket = bucketFor(request.getRequestLine().getUri());
+        for (int attempt = 0; ; attempt++) {
+            if (bucket != null) {
+                try {
+                    bucket.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for a rate limit slot");
+                }
+            }
+            T response = call.send();
+            int status = response.getStatusLine().getStatusCode();
+            Header retryAfter = response.getFirstHeader("Retry-After");
+            long delay = onResponse(bucket, method, status, retryAfter == null ? null : retryAfter.getValue(), attempt);
+            if (delay < 0) {
+                return response;
+            }
+            // The connection goes back to the pool only once the discarded response has been read
+            EntityUtils.consumeQuietly(response.getEntity());
+            sleep(delay);
+        }
+    }
+
+    /**
+     * Feeds one response back into a bucket and decides whether to retry. Used by clients that do not go through
+     * {@link #execute}, such as the asynchronous one.
+     *
+     * @param bucket     The bucket the request was sent through, or null.
+     * @param method     The HTTP method.
+     * @param status     The response status.
+     * @param retryAfter The Retry-After header, or null.
+     * @param attempt    The number of retries already made.
+     * @return How many nanoseconds to wait before retrying, or -1 if the response is final.
+     */
+    public long onResponse(TokenBucket bucket, String method, int status, String retryAfter, int attempt) {
+        long retryAfterNanos = 0;
+        if (status == 429) {
+            retryAfterNanos = parseRetryAfterNanos(retryAfter);
+            if (bucket != null) {
+                bucket.onThrottled(retryAfterNanos);
+            }
+        } else if (bucket != null) {
+            bucket.onSuccess();
+        }
+        if (!isRetryable(method, status)) {
+            return -1;
+        }
+        if (attempt >= maxRetries) {
+            exhausted.increment();
+            return -1;
+        }
+        retries.increment();
+        return backoffNanos(attempt, retryAfterNanos);
+    }
+
+    /**
+     * @param method The HTTP method.
+     * @param status The response status.
+     * @return true if the request should be sent again.
+     */
+    public static boolean isRetryable(String method, int status) {
+        return status == 429 || (status >= 500 && IDEMPOTENT_METHODS.contains(method.toUpperCase()));
+    }
+
+    /**
+     * Computes how long to wait before a retry: exponential backoff with jitter, but never less than Retry-After.
+     *
+     * @param attempt         The number of retries already made.
+     * @param retryAfterNanos The delay the server asked for, or 0.
+     * @return The delay in nanoseconds.
+     */
+    public static long backoffNanos(int attempt, long retryAfterNanos) {
+        long backoff = Math.min(MAX_BACKOFF_NANOS, BASE_BACKOFF_NANOS << Math.min(attempt, 16));
+        long jittered = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        return Math.max(jittered, retryAfterNanos);
+    }
+
+    /**
+     * Parses a Retry-After header, given either as a number of seconds or as an HTTP date.
+     *
+     * @param value The header value, or null.
+     * @return The delay in nanoseconds; 0 if there is no usable value.
+     */
+    public static long parseRetryAfterNanos(String value) {
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return TimeUnit.SECONDS.toNanos(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(value.trim());
+            return date == null ? 0 : TimeUnit.MILLISECONDS.toNanos(Math.max(0, date.getTime() - System.currentTimeMillis()));
+        }
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * @return The number of requests that were still throttled or failing after the last retry.
+     */
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+
+    /**
+     * @return The buckets by "key:token" pair; the values are live.
+     */
+    public Map<String, TokenBucket> getBuckets() {
+        return buckets;
+    }
+
+    private static String queryParam(String uri, String name) {
+        int query = uri.indexOf('?');
+        if (query < 0) {
+            return "";
+        }
+        String prefix = name + "=";
+        int start = query + 1;
+        while (start < uri.length()) {
+            int end = uri.indexOf('&', start);
+            if (end < 0) {
+                end = uri.length();
+            }
+            if (uri.startsWith(prefix, start)) {
+                return uri.substring(start + prefix.length(), end);
+            }
+            start = end + 1;
+        }
+        return "";
+    }
+
+    private static void sleep(long nanos) throws InterruptedIOException {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off");
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        summary.append("retries=").append(getRetries()).append(", exhausted=").append(getExhausted());
+        buckets.forEach((pair, bucket) -> {
+            int colon = pair.indexOf(':');
+            // Only a short prefix of the key is printed so credentials do not end up in logs
+            summary.append("; key ").append(pair, 0, Math.min(colon, 6)).append("...: ").append(bucket);
+        });
+        return summary.toString();
+    }
+
+    /**
+     * Sends one request.
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+        T send() throws IOException;
+    }
+}
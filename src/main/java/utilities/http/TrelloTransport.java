@@ -0,0 +1,443 @@
+package utilities.http;
+
+import com.mashape.unirest.http.Unirest;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.config.DecoderConfig;
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.specification.RequestSpecification;
+import org.apache.http.Header;
+import org.apache.http.HttpConnection;
+import org.apache.http.HttpConnectionMetrics;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.entity.GzipDecompressingEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.scheme.SchemeSocketFactory;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import utilities.ConfigReader;
+import utilities.cassette.Cassette;
+import utilities.metrics.InstrumentationFilter;
+import utilities.metrics.RequestMetrics;
+import utilities.metrics.WireExchange;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * One HTTP transport configuration shared by the RestAssured and Unirest test paths.
+ *
+ * Both stacks sit on Apache HttpClient 4, but RestAssured needs the legacy {@link DefaultHttpClient} API while
+ * Unirest takes a builder-made client, so the transport builds one pooled client for each from the same settings:
+ * "HttpMaxConnectionsTotal", "HttpMaxConnectionsPerRoute", "HttpKeepAliveMillis" (upper bound for how long an idle
+ * connection is kept alive when the server does not say otherwise) and "HttpIdleEvictMillis" (how often, and after
+ * how much idle time, pooled connections are closed). Socket factories are wrapped so {@link TransportMetrics} can
+ * count opened versus reused connections and time the TCP connect plus TLS handshake. Both clients send every request
+ * through the shared {@link TrelloRateLimiter}, which paces them per key/token pair and retries throttled requests,
+ * and report header arrival and byte counts to the thread's {@link WireExchange} for the request instrumentation.
+ * When a {@link Cassette} is configured, responses are recorded to it or replayed from it without any network.
+ * "HttpCompression" (default true) makes both clients ask for gzip; the transport decompresses the responses itself,
+ * so the byte counts are what went over the wire and {@link TransportMetrics} shows what compression saved.
+ */
+public class TrelloTransport {
+
+    private static TrelloTransport shared;
+
+    private final TransportMetrics metrics = new TransportMetrics();
+    private final TrelloRateLimiter rateLimiter;
+    private final Cassette cassette;
+    // RestAssured 5 still drives HttpClient 4 through its deprecated pre-4.3 API (DefaultHttpClient with a legacy
+    // connection manager and scheme registry), so the members that build its client have to use that API too
+    @SuppressWarnings("deprecation")
+    private final PoolingClientConnectionManager restAssuredPool;
+    private final PoolingHttpClientConnectionManager unirestPool;
+    @SuppressWarnings("deprecation")
+    private final DefaultHttpClient restAssuredClient;
+    private final CloseableHttpClient unirestClient;
+    private final RestAssuredConfig restAssuredConfig;
+    private final RequestSpecification baseSpec;
+
+    /**
+     * @param baseUrl            The base URL for the shared request specification.
+     * @param maxTotal           The maximum number of pooled connections per client.
+     * @param maxPerRoute        The maximum number of pooled connections per host.
+     * @param keepAliveMillis    The keep-alive duration used when the server does not send one, and its upper bound.
+     * @param idleEvictMillis    How long a connection may stay idle before it is closed.
+     * @param rateLimiter        The limiter every request of both clients goes through.
+     * @param cassette           The cassette that records or replays every response, or null to always use the network.
+     * @param compression        true to ask for gzip-compressed responses, false to ask for uncompressed ones.
+     */
+    @SuppressWarnings("deprecation")
+    public TrelloTransport(String baseUrl, int maxTotal, int maxPerRoute, long keepAliveMillis, long idleEvictMillis,
+                           TrelloRateLimiter rateLimiter, Cassette cassette, boolean compression) {
+        this.rateLimiter = rateLimiter;
+        this.cassette = cassette;
+        ConnectionKeepAliveStrategy keepAlive = (response, context) -> {
+            long announced = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return announced > 0 ? Math.min(announced, keepAliveMillis) : keepAliveMillis;
+        };
+        // Both clients leave content coding to the transport (see observe), so it is negotiated the same way for both
+        HttpRequestInterceptor acceptEncoding = (request, context) -> {
+            if (compression) {
+                request.setHeader("Accept-Encoding", "gzip");
+            } else {
+                request.removeHeaders("Accept-Encoding");
+            }
+        };
+
+        // RestAssured: legacy API
+        SchemeRegistry schemes = new SchemeRegistry();
+        schemes.register(new Scheme("http", 80, new CountingSchemeSocketFactory(PlainSocketFactory.getSocketFactory())));
+        schemes.register(new Scheme("https", 443,
+                new CountingSchemeSocketFactory(org.apache.http.conn.ssl.SSLSocketFactory.getSocketFactory())));
+        restAssuredPool = new PoolingClientConnectionManager(schemes, keepAliveMillis, TimeUnit.MILLISECONDS);
+        restAssuredPool.setMaxTotal(maxTotal);
+        restAssuredPool.setDefaultMaxPerRoute(maxPerRoute);
+        restAssuredClient = new DefaultHttpClient(restAssuredPool) {
+            @Override
+            public CloseableHttpResponse execute(HttpUriRequest request, HttpContext context) throws IOException {
+                HttpContext exchangeContext = context != null ? context : new BasicHttpContext();
+                return exchange(request, () -> countSent(super.execute(request, exchangeContext), exchangeContext));
+            }
+
+            @Override
+            public CloseableHttpResponse execute(HttpHost target, HttpRequest request, HttpContext context) throws IOException {
+                HttpContext exchangeContext = context != null ? context : new BasicHttpContext();
+                return exchange(request,
+                        () -> countSent(super.execute(target, request, exchangeContext), exchangeContext));
+            }
+        };
+        restAssuredClient.setKeepAliveStrategy(keepAlive);
+        restAssuredClient.addRequestInterceptor((request, context) -> metrics.recordRequest());
+        restAssuredClient.addRequestInterceptor(acceptEncoding);
+
+        // Unirest: builder API
+        unirestPool = new PoolingHttpClientConnectionManager(RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", new CountingConnectionSocketFactory(PlainConnectionSocketFactory.getSocketFactory()))
+                .register("https", new CountingConnectionSocketFactory(SSLConnectionSocketFactory.getSocketFactory()))
+                .build(), null, null, null, keepAliveMillis, TimeUnit.MILLISECONDS);
+        unirestPool.setMaxTotal(maxTotal);
+        unirestPool.setDefaultMaxPerRoute(maxPerRoute);
+        unirestClient = new RateLimitedHttpClient(HttpClientBuilder.create()
+                .setConnectionManager(unirestPool)
+                .setKeepAliveStrategy(keepAlive)
+                .disableContentCompression()
+                .addInterceptorLast((HttpRequestInterceptor) (request, context) -> metrics.recordRequest())
+                .addInterceptorLast(acceptEncoding)
+                .build());
+
+        ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "http-idle-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(() -> {
+            restAssuredPool.closeExpiredConnections();
+            restAssuredPool.closeIdleConnections(idleEvictMillis, TimeUnit.MILLISECONDS);
+            unirestPool.closeExpiredConnections();
+            unirestPool.closeIdleConnections(idleEvictMillis, TimeUnit.MILLISECONDS);
+        }, idleEvictMillis, idleEvictMillis, TimeUnit.MILLISECONDS);
+
+        restAssuredConfig = RestAssuredConfig.config().httpClient(HttpClientConfig.httpClientConfig()
+                        .reuseHttpClientInstance()
+                        .httpClientFactory(() -> restAssuredClient))
+                .decoderConfig(DecoderConfig.decoderConfig().noContentDecoders());
+        baseSpec = new RequestSpecBuilder()
+                .setBaseUri(baseUrl)
+                .setConfig(restAssuredConfig)
+                .addFilter(new InstrumentationFilter(RequestMetrics.shared()))
+                .build();
+    }
+
+    /**
+     * Returns the process-wide transport built from the configuration, creating it on first use.
+     *
+     * @return The shared transport.
+     */
+    public static synchronized TrelloTransport shared() {
+        if (shared == null) {
+            shared = new TrelloTransport(ConfigReader.getBaseUrl(),
+                    (int) ConfigReader.getLong("HttpMaxConnectionsTotal", 200),
+                    (int) ConfigReader.getLong("HttpMaxConnectionsPerRoute", 50),
+                    ConfigReader.getLong("HttpKeepAliveMillis", 30_000),
+                    ConfigReader.getLong("HttpIdleEvictMillis", 10_000),
+                    TrelloRateLimiter.shared(),
+                    Cassette.shared(),
+                    Boolean.parseBoolean(ConfigReader.getProperty("HttpCompression", "true").trim()));
+        }
+        return shared;
+    }
+
+    /**
+     * @return The RestAssured configuration that routes every request through the pooled client.
+     */
+    public RestAssuredConfig getRestAssuredConfig() {
+        return restAssuredConfig;
+    }
+
+    /**
+     * @return The base request specification (base URI and pooled client), built once and reused by every request.
+     */
+    public RequestSpecification getBaseSpec() {
+        return baseSpec;
+    }
+
+    /**
+     * Makes Unirest send its synchronous requests through the pooled client.
+     */
+    public void installUnirest() {
+        Unirest.setHttpClient(unirestClient);
+    }
+
+    public TransportMetrics getMetrics() {
+        return metrics;
+    }
+
+    public TrelloRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Sends one request of either client: from the cassette when replaying, otherwise through the rate limiter, and
+     * appends the final, decompressed response to the cassette when recording.
+     */
+    private CloseableHttpResponse exchange(HttpRequest request, TrelloRateLimiter.Call<CloseableHttpResponse> send)
+            throws IOException {
+        if (cassette != null && cassette.isReplaying()) {
+            return observe(cassette.replay(request));
+        }
+        CloseableHttpResponse response = observe(rateLimiter.execute(request, send));
+        if (cassette != null) {
+            cassette.record(request, response);
+        }
+        return response;
+    }
+
+    /**
+     * Adds the bytes written for one attempt to the current {@link WireExchange}. The connection's counters are reset
+     * afterwards, so the next request on the same pooled connection only counts its own bytes.
+     */
+    private static CloseableHttpResponse countSent(CloseableHttpResponse response, HttpContext context) {
+        Object connection = context.getAttribute(HttpCoreContext.HTTP_CONNECTION);
+        if (connection instanceof HttpConnection) {
+            try {
+                HttpConnectionMetrics connectionMetrics = ((HttpConnection) connection).getMetrics();
+                WireExchange.current().addSent(connectionMetrics.getSentBytesCount());
+                connectionMetrics.reset();
+            } catch (RuntimeException e) {
+                // Responses without a body release the connection before this point; their bytes are not counted
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Marks the arrival of the response headers on the current {@link WireExchange} and counts the body bytes as the
+     * caller reads them. A gzip-compressed body is counted as it arrives and decompressed here, for both clients,
+     * so the exchange reports wire bytes and the callers (and the cassette) see the plain body.
+     */
+    private CloseableHttpResponse observe(CloseableHttpResponse response) {
+        WireExchange wire = WireExchange.current();
+        wire.onHeaders();
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            return response;
+        }
+        if (!isGzip(response, entity)) {
+            response.setEntity(new CountingEntity(entity, wire::addReceived));
+            return response;
+        }
+        metrics.recordCompressedResponse();
+        response.removeHeaders("Content-Encoding");
+        response.removeHeaders("Content-Length");
+        response.setEntity(new CountingEntity(new GzipDecompressingEntity(new CountingEntity(entity, bytes -> {
+            wire.addReceived(bytes);
+            metrics.addCompressedBytes(bytes);
+        })), metrics::addDecodedBytes) {
+            @Override
+            public Header getContentEncoding() {
+                return null;
+            }
+
+            @Override
+            public long getContentLength() {
+                return -1;
+            }
+        });
+        return response;
+    }
+
+    private static boolean isGzip(HttpResponse response, HttpEntity entity) {
+        Header encoding = entity.getContentEncoding() != null
+                ? entity.getContentEncoding() : response.getFirstHeader("Content-Encoding");
+        return encoding != null && ("gzip".equalsIgnoreCase(encoding.getValue().trim())
+                || "x-gzip".equalsIgnoreCase(encoding.getValue().trim()));
+    }
+
+    /**
+     * Entity wrapper that reports every body byte the caller reads.
+     */
+    private static class CountingEntity extends HttpEntityWrapper {
+
+        private final LongConsumer counter;
+
+        CountingEntity(HttpEntity entity, LongConsumer counter) {
+            super(entity);
+            this.counter = counter;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new FilterInputStream(super.getContent()) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        counter.accept(1);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int read = super.read(buffer, offset, length);
+                    if (read > 0) {
+                        counter.accept(read);
+                    }
+                    return read;
+                }
+            };
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            try (InputStream content = getContent()) {
+                content.transferTo(out);
+            }
+        }
+    }
+
+    /**
+     * Builder-API client wrapper that sends every request through the rate limiter. Each retry the limiter makes
+     * goes through the whole delegate again, so it is counted and pooled like any other request.
+     */
+    private final class RateLimitedHttpClient extends CloseableHttpClient {
+
+        private final CloseableHttpClient delegate;
+
+        RateLimitedHttpClient(CloseableHttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected CloseableHttpResponse doExecute(HttpHost target, HttpRequest request, HttpContext context) throws IOException {
+            HttpContext exchangeContext = context != null ? context : new BasicHttpContext();
+            return exchange(request, () -> countSent(delegate.execute(target, request, exchangeContext), exchangeContext));
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public HttpParams getParams() {
+            return delegate.getParams();
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public org.apache.http.conn.ClientConnectionManager getConnectionManager() {
+            return delegate.getConnectionManager();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    /**
+     * Legacy-API socket factory that reports every new connection to the metrics.
+     */
+    @SuppressWarnings("deprecation")
+    private final class CountingSchemeSocketFactory implements SchemeSocketFactory {
+
+        private final SchemeSocketFactory delegate;
+
+        CountingSchemeSocketFactory(SchemeSocketFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Socket createSocket(HttpParams params) throws IOException {
+            return delegate.createSocket(params);
+        }
+
+        @Override
+        public Socket connectSocket(Socket socket, InetSocketAddress remoteAddress, InetSocketAddress localAddress,
+                                    HttpParams params) throws IOException {
+            long start = System.nanoTime();
+            Socket connected = delegate.connectSocket(socket, remoteAddress, localAddress, params);
+            metrics.recordConnect(connected, System.nanoTime() - start);
+            return connected;
+        }
+
+        @Override
+        public boolean isSecure(Socket socket) {
+            return delegate.isSecure(socket);
+        }
+    }
+
+    /**
+     * Builder-API socket factory that reports every new connection to the metrics.
+     */
+    private final class CountingConnectionSocketFactory implements ConnectionSocketFactory {
+
+        private final ConnectionSocketFactory delegate;
+
+        CountingConnectionSocketFactory(ConnectionSocketFactory delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Socket createSocket(HttpContext context) throws IOException {
+            return delegate.createSocket(context);
+        }
+
+        @Override
+        public Socket connectSocket(int connectTimeout, Socket socket, HttpHost host, InetSocketAddress remoteAddress,
+                                    InetSocketAddress localAddress, HttpContext context) throws IOException {
+            long start = System.nanoTime();
+            Socket connected = delegate.connectSocket(connectTimeout, socket, host, remoteAddress, localAddress, context);
+            metrics.recordConnect(connected, System.nanoTime() - start);
+            return connected;
+        }
+    }
+}
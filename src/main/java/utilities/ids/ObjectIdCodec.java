@@ -0,0 +1,101 @@
+package utilities.ids;
+
+/**
+ * Packs Trello ids into primitives. A Trello id is a 24-hex-digit ObjectId, i.e. 12 bytes; the first 16 digits go
+ * into a long ("high") and the last 8 into an int ("low"), so an id costs 12 bytes instead of a String of 24 chars
+ * (about 80 bytes with its headers and array).
+ *
+ * Hex digits are accepted in either case; decoding always gives lowercase, as Trello does.
+ */
+public final class ObjectIdCodec {
+
+    public static final int LENGTH = 24;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ObjectIdCodec() {
+    }
+
+    /**
+     * @param id A value that may be an id.
+     * @return true if the value is 24 hex digits and can be encoded.
+     */
+    public static boolean isValid(CharSequence id) {
+        if (id == null || id.length() != LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            if (digit(id.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param id An id.
+     * @return Its first 8 bytes.
+     * @throws IllegalArgumentException If the value is not an id.
+     */
+    public static long high(CharSequence id) {
+        check(id);
+        return parse(id, 0, 16);
+    }
+
+    /**
+     * @param id An id.
+     * @return Its last 4 bytes.
+     * @throws IllegalArgumentException If the value is not an id.
+     */
+    public static int low(CharSequence id) {
+        check(id);
+        return (int) parse(id, 16, 8);
+    }
+
+    /**
+     * Turns an encoded id back into its 24-hex-digit form.
+     *
+     * @param high The first 8 bytes.
+     * @param low  The last 4 bytes.
+     * @return The id.
+     */
+    public static String decode(long high, int low) {
+        char[] out = new char[LENGTH];
+        for (int i = 15; i >= 0; i--) {
+            out[i] = HEX[(int) (high & 0xF)];
+            high >>>= 4;
+        }
+        for (int i = 23; i >= 16; i--) {
+            out[i] = HEX[low & 0xF];
+            low >>>= 4;
+        }
+        return new String(out);
+    }
+
+    private static void check(CharSequence id) {
+        if (!isValid(id)) {
+            throw new IllegalArgumentException("Not a Trello id: " + id);
+        }
+    }
+
+    private static long parse(CharSequence id, int offset, int digits) {
+        long value = 0;
+        for (int i = offset; i < offset + digits; i++) {
+            value = value << 4 | digit(id.charAt(i));
+        }
+        return value;
+    }
+
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,228 @@
+package utilities.ids;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A hash map from Trello ids to non-negative ints that stores no objects per entry.
+ *
+ * Entries live in one buffer of 16-byte slots (the id as a long and an int, see {@link ObjectIdCodec}, plus the
+ * value) with open addressing and linear probing; removal shifts the following entries back instead of leaving
+ * tombstones, so lookups stay short however many ids come and go. The table doubles when it is two thirds full. The
+ * buffer is on the Java heap, or off-heap (a direct buffer) when requested, which keeps large tables out of the
+ * garbage collector's way entirely. A table holds at most 2^26 slots, i.e. about 44 million ids.
+ *
+ * Not thread-safe.
+ */
+public class ObjectIdMap {
+
+    /**
+     * Returned by lookups for ids that are not in the map.
+     */
+    public static final int MISSING = -1;
+
+    static final int SLOT_BYTES = 16;
+    private static final int MAX_CAPACITY = 1 << 26;
+    private static final int MIN_CAPACITY = 16;
+
+    private final boolean offHeap;
+    private ByteBuffer slots;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    /**
+     * @param expectedSize How many ids the map is expected to hold; it grows beyond that as needed.
+     * @param offHeap      true to keep the table in native memory instead of on the heap.
+     */
+    public ObjectIdMap(int expectedSize, boolean offHeap) {
+        this.offHeap = offHeap;
+        int capacity = MIN_CAPACITY;
+        while (capacity < MAX_CAPACITY && capacity * 2L / 3 < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    public ObjectIdMap() {
+        this(MIN_CAPACITY, false);
+    }
+
+    private void allocate(int capacity) {
+        // A fresh buffer is all zeros, and a stored value of 0 marks an empty slot (values are stored plus one)
+        slots = offHeap ? ByteBuffer.allocateDirect(capacity * SLOT_BYTES) : ByteBuffer.allocate(capacity * SLOT_BYTES);
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * 2L / 3);
+    }
+
+    /**
+     * @param id The id.
+     * @return The value, or {@link #MISSING}.
+     */
+    public int get(String id) {
+        return get(ObjectIdCodec.high(id), ObjectIdCodec.low(id));
+    }
+
+    /**
+     * @param high The first 8 bytes of the id.
+     * @param low  The last 4 bytes of the id.
+     * @return The value, or {@link #MISSING}.
+     */
+    public int get(long high, int low) {
+        int slot = find(high, low);
+        return slot < 0 ? MISSING : value(slot);
+    }
+
+    public boolean containsKey(String id) {
+        return get(id) != MISSING;
+    }
+
+    /**
+     * @param id    The id.
+     * @param value The value, at least 0 and less than {@link Integer#MAX_VALUE}.
+     * @return The previous value, or {@link #MISSING}.
+     */
+    public int put(String id, int value) {
+        return put(ObjectIdCodec.high(id), ObjectIdCodec.low(id), value);
+    }
+
+    /**
+     * @param high  The first 8 bytes of the id.
+     * @param low   The last 4 bytes of the id.
+     * @param value The value, at least 0 and less than {@link Integer#MAX_VALUE}.
+     * @return The previous value, or {@link #MISSING}.
+     */
+    public int put(long high, int low, int value) {
+        if (value < 0 || value == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Values must be between 0 and " + (Integer.MAX_VALUE - 1) + ", not " + value);
+        }
+        int slot = slotOf(high, low);
+        while (isOccupied(slot)) {
+            if (slots.getLong(slot * SLOT_BYTES) == high && slots.getInt(slot * SLOT_BYTES + 8) == low) {
+                int previous = value(slot);
+                slots.putInt(slot * SLOT_BYTES + 12, value + 1);
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        write(slot, high, low, value + 1);
+        if (++size > resizeAt) {
+            grow();
+        }
+        return MISSING;
+    }
+
+    /**
+     * @param id The id.
+     * @return The removed value, or {@link #MISSING} if the id was not in the map.
+     */
+    public int remove(String id) {
+        int hole = find(ObjectIdCodec.high(id), ObjectIdCodec.low(id));
+        if (hole < 0) {
+            return MISSING;
+        }
+        int removed = value(hole);
+        // Move every following entry of the probe run that may live in the hole back into it
+        int next = (hole + 1) & mask;
+        while (isOccupied(next)) {
+            int home = slotOf(slots.getLong(next * SLOT_BYTES), slots.getInt(next * SLOT_BYTES + 8));
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                write(hole, slots.getLong(next * SLOT_BYTES), slots.getInt(next * SLOT_BYTES + 8),
+                        slots.getInt(next * SLOT_BYTES + 12));
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        write(hole, 0, 0, 0);
+        size--;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The bytes held by the table, which is all the memory the map needs apart from the object itself.
+     */
+    public long getStorageBytes() {
+        return (long) slots.capacity();
+    }
+
+    /**
+     * Visits every entry, in no particular order.
+     *
+     * @param consumer Receives each id (as its two parts) and value.
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot <= mask; slot++) {
+            if (isOccupied(slot)) {
+                consumer.accept(slots.getLong(slot * SLOT_BYTES), slots.getInt(slot * SLOT_BYTES + 8), value(slot));
+            }
+        }
+    }
+
+    private int find(long high, int low) {
+        int slot = slotOf(high, low);
+        while (isOccupied(slot)) {
+            if (slots.getLong(slot * SLOT_BYTES) == high && slots.getInt(slot * SLOT_BYTES + 8) == low) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void grow() {
+        if (mask + 1 >= MAX_CAPACITY) {
+            throw new IllegalStateException("An id map holds at most " + resizeAt + " ids");
+        }
+        ByteBuffer old = slots;
+        int oldCapacity = mask + 1;
+        allocate(oldCapacity << 1);
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int stored = old.getInt(slot * SLOT_BYTES + 12);
+            if (stored != 0) {
+                long high = old.getLong(slot * SLOT_BYTES);
+                int low = old.getInt(slot * SLOT_BYTES + 8);
+                int target = slotOf(high, low);
+                while (isOccupied(target)) {
+                    target = (target + 1) & mask;
+                }
+                write(target, high, low, stored);
+            }
+        }
+    }
+
+    private boolean isOccupied(int slot) {
+        return slots.getInt(slot * SLOT_BYTES + 12) != 0;
+    }
+
+    private int value(int slot) {
+        return slots.getInt(slot * SLOT_BYTES + 12) - 1;
+    }
+
+    private void write(int slot, long high, int low, int stored) {
+        slots.putLong(slot * SLOT_BYTES, high);
+        slots.putInt(slot * SLOT_BYTES + 8, low);
+        slots.putInt(slot * SLOT_BYTES + 12, stored);
+    }
+
+    /**
+     * Spreads ids over the table. The leading bytes of an ObjectId are a timestamp and a per-process constant, so
+     * both halves are mixed (SplitMix64 finaliser) before taking the low bits.
+     */
+    private int slotOf(long high, int low) {
+        long z = high ^ (low * 0x9e3779b97f4a7c15L);
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return (int) (z ^ (z >>> 31)) & mask;
+    }
+
+    /**
+     * Receives the entries of {@link #forEach(EntryConsumer)}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long high, int low, int value);
+    }
+}
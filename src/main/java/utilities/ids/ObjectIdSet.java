@@ -0,0 +1,58 @@
+package utilities.ids;
+
+import java.util.function.Consumer;
+
+/**
+ * A set of Trello ids stored as 16-byte slots of an {@link ObjectIdMap}, with no objects per id.
+ *
+ * Not thread-safe.
+ */
+public class ObjectIdSet {
+
+    private final ObjectIdMap map;
+
+    /**
+     * @param expectedSize How many ids the set is expected to hold; it grows beyond that as needed.
+     * @param offHeap      true to keep the table in native memory instead of on the heap.
+     */
+    public ObjectIdSet(int expectedSize, boolean offHeap) {
+        this.map = new ObjectIdMap(expectedSize, offHeap);
+    }
+
+    public ObjectIdSet() {
+        this.map = new ObjectIdMap();
+    }
+
+    /**
+     * @return true if the id was not in the set yet.
+     */
+    public boolean add(String id) {
+        return map.put(id, 0) == ObjectIdMap.MISSING;
+    }
+
+    public boolean contains(String id) {
+        return map.containsKey(id);
+    }
+
+    /**
+     * @return true if the id was in the set.
+     */
+    public boolean remove(String id) {
+        return map.remove(id) != ObjectIdMap.MISSING;
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public long getStorageBytes() {
+        return map.getStorageBytes();
+    }
+
+    /**
+     * Visits every id, in no particular order, decoding each one to a String.
+     */
+    public void forEach(Consumer<String> consumer) {
+        map.forEach((high, low, value) -> consumer.accept(ObjectIdCodec.decode(high, low)));
+    }
+}
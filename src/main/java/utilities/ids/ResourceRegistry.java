@@ -0,0 +1,240 @@
+package utilities.ids;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Tracks created and deleted Trello resources and their board -> list -> card relations in a few flat buffers, so
+ * runs that track millions of ids keep them in a few dozen bytes each instead of several objects per id.
+ *
+ * Every id seen (created, deleted or named as a parent) gets an entry number in first-seen order; an
+ * {@link ObjectIdMap} finds the entry of an id. An entry is a 28-byte record: the id (12 bytes, see
+ * {@link ObjectIdCodec}), the entry numbers of its parent, its first child and its next sibling, and its type and
+ * created/deleted flags. A resource counts as deleted when it or any of its ancestors was deleted, as Trello deletes
+ * lists and cards along with their board. The buffers live on the heap or, when requested, off-heap.
+ *
+ * Not thread-safe.
+ */
+public class ResourceRegistry {
+
+    private static final int ENTRY_BYTES = 28;
+    private static final int ID_HIGH = 0;
+    private static final int ID_LOW = 8;
+    private static final int PARENT = 12;
+    private static final int FIRST_CHILD = 16;
+    private static final int NEXT_SIBLING = 20;
+    private static final int FLAGS = 24;
+    private static final int NONE = -1;
+    private static final int CREATED = 1;
+    private static final int DELETED = 2;
+    private static final int TYPE_SHIFT = 8;
+    private static final int MAX_ENTRIES = Integer.MAX_VALUE / ENTRY_BYTES;
+
+    private final boolean offHeap;
+    private final ObjectIdMap index;
+    // Type names by type number; there are only a handful, so a list lookup is fine
+    private final List<String> types = new ArrayList<>();
+    private ByteBuffer entries;
+    private int count;
+
+    /**
+     * @param expectedSize How many ids the registry is expected to hold; it grows beyond that as needed.
+     * @param offHeap      true to keep the buffers in native memory instead of on the heap.
+     */
+    public ResourceRegistry(int expectedSize, boolean offHeap) {
+        this.offHeap = offHeap;
+        this.index = new ObjectIdMap(expectedSize, offHeap);
+        this.entries = allocate(Math.min(MAX_ENTRIES, Math.max(16, expectedSize)));
+    }
+
+    public ResourceRegistry() {
+        this(16, false);
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return offHeap ? ByteBuffer.allocateDirect(capacity * ENTRY_BYTES) : ByteBuffer.allocate(capacity * ENTRY_BYTES);
+    }
+
+    /**
+     * Records a created resource.
+     *
+     * @param type     The resource type, e.g. "board".
+     * @param id       The resource id.
+     * @param parentId The id of the containing resource, or null for boards.
+     */
+    public void recordCreated(String type, String id, String parentId) {
+        int entry = entryOf(id);
+        int flags = entries.getInt(entry * ENTRY_BYTES + FLAGS);
+        entries.putInt(entry * ENTRY_BYTES + FLAGS, (flags & DELETED) | CREATED | typeNumber(type) << TYPE_SHIFT);
+        if (parentId != null && entries.getInt(entry * ENTRY_BYTES + PARENT) == NONE) {
+            int parent = entryOf(parentId);
+            if (isAncestorOrSelf(entry, parent)) {
+                // Only a corrupt ledger names a resource's own descendant as its parent; keep the tree a tree
+                return;
+            }
+            entries.putInt(entry * ENTRY_BYTES + PARENT, parent);
+            entries.putInt(entry * ENTRY_BYTES + NEXT_SIBLING, entries.getInt(parent * ENTRY_BYTES + FIRST_CHILD));
+            entries.putInt(parent * ENTRY_BYTES + FIRST_CHILD, entry);
+        }
+    }
+
+    /**
+     * Records a deleted resource; its lists and cards count as deleted too.
+     *
+     * @param id The resource id.
+     */
+    public void recordDeleted(String id) {
+        int entry = entryOf(id);
+        entries.putInt(entry * ENTRY_BYTES + FLAGS, entries.getInt(entry * ENTRY_BYTES + FLAGS) | DELETED);
+    }
+
+    /**
+     * @param id The resource id.
+     * @return true if the resource was created and neither it nor any of its ancestors was deleted.
+     */
+    public boolean isOutstanding(String id) {
+        int entry = index.get(id);
+        return entry != ObjectIdMap.MISSING && isOutstanding(entry);
+    }
+
+    /**
+     * @param type A resource type, or null for any type.
+     * @return true if at least one resource of that type is outstanding.
+     */
+    public boolean hasOutstanding(String type) {
+        int typeNumber = type == null ? -1 : types.indexOf(type);
+        if (type != null && typeNumber < 0) {
+            return false;
+        }
+        for (int entry = 0; entry < count; entry++) {
+            if (isOutstanding(entry) && (typeNumber < 0 || typeNumber == typeOf(entry))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Visits the outstanding resources in the order their ids were first seen, which is creation order.
+     *
+     * @param consumer Receives each id and its type.
+     */
+    public void forEachOutstanding(BiConsumer<String, String> consumer) {
+        for (int entry = 0; entry < count; entry++) {
+            if (isOutstanding(entry)) {
+                consumer.accept(idOf(entry), types.get(typeOf(entry)));
+            }
+        }
+    }
+
+    /**
+     * Visits the recorded children of a resource, e.g. the lists of a board, newest first.
+     *
+     * @param parentId The parent id.
+     * @param consumer Receives each child id.
+     */
+    public void forEachChild(String parentId, Consumer<String> consumer) {
+        int parent = index.get(parentId);
+        if (parent == ObjectIdMap.MISSING) {
+            return;
+        }
+        for (int child = entries.getInt(parent * ENTRY_BYTES + FIRST_CHILD); child != NONE;
+             child = entries.getInt(child * ENTRY_BYTES + NEXT_SIBLING)) {
+            consumer.accept(idOf(child));
+        }
+    }
+
+    /**
+     * @return The number of ids seen.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return The bytes held by the index and the entries.
+     */
+    public long getStorageBytes() {
+        return index.getStorageBytes() + entries.capacity();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d ids in %.1f KB %s", count, getStorageBytes() / 1024.0, offHeap ? "off-heap" : "on heap");
+    }
+
+    private boolean isOutstanding(int entry) {
+        if ((entries.getInt(entry * ENTRY_BYTES + FLAGS) & CREATED) == 0) {
+            return false;
+        }
+        // Boards, lists and cards are at most three levels deep
+        for (int current = entry; current != NONE; current = entries.getInt(current * ENTRY_BYTES + PARENT)) {
+            if ((entries.getInt(current * ENTRY_BYTES + FLAGS) & DELETED) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isAncestorOrSelf(int ancestor, int entry) {
+        for (int current = entry; current != NONE; current = entries.getInt(current * ENTRY_BYTES + PARENT)) {
+            if (current == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int entryOf(String id) {
+        long high = ObjectIdCodec.high(id);
+        int low = ObjectIdCodec.low(id);
+        int entry = index.get(high, low);
+        if (entry != ObjectIdMap.MISSING) {
+            return entry;
+        }
+        if (count == entries.capacity() / ENTRY_BYTES) {
+            grow();
+        }
+        entry = count++;
+        entries.putLong(entry * ENTRY_BYTES + ID_HIGH, high);
+        entries.putInt(entry * ENTRY_BYTES + ID_LOW, low);
+        entries.putInt(entry * ENTRY_BYTES + PARENT, NONE);
+        entries.putInt(entry * ENTRY_BYTES + FIRST_CHILD, NONE);
+        entries.putInt(entry * ENTRY_BYTES + NEXT_SIBLING, NONE);
+        entries.putInt(entry * ENTRY_BYTES + FLAGS, 0);
+        index.put(high, low, entry);
+        return entry;
+    }
+
+    private void grow() {
+        int capacity = entries.capacity() / ENTRY_BYTES;
+        if (capacity >= MAX_ENTRIES) {
+            throw new IllegalStateException("A resource registry holds at most " + MAX_ENTRIES + " ids");
+        }
+        ByteBuffer grown = allocate((int) Math.min(MAX_ENTRIES, capacity * 2L));
+        entries.clear();
+        grown.put(entries);
+        entries = grown;
+    }
+
+    private String idOf(int entry) {
+        return ObjectIdCodec.decode(entries.getLong(entry * ENTRY_BYTES + ID_HIGH),
+                entries.getInt(entry * ENTRY_BYTES + ID_LOW));
+    }
+
+    private int typeOf(int entry) {
+        return entries.getInt(entry * ENTRY_BYTES + FLAGS) >>> TYPE_SHIFT;
+    }
+
+    private int typeNumber(String type) {
+        int number = types.indexOf(type);
+        if (number < 0) {
+            number = types.size();
+            types.add(type);
+        }
+        return number;
+    }
+}
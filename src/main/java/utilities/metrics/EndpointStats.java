@@ -0,0 +1,108 @@
+package utilities.metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Everything recorded for one test method, HTTP method and endpoint.
+ *
+ * Counters are {@link LongAdder}s and latencies go into {@link ConcurrentHistogram}s, so concurrent requests record
+ * without taking locks and without contending on a single cache line.
+ */
+public class EndpointStats {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final String test;
+    private final String method;
+    private final String endpoint;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sentBytes = new LongAdder();
+    private final LongAdder receivedBytes = new LongAdder();
+    private final Histogram timeToFirstByte = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+    private final Histogram total = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+    // Indexed by status code; slot 0 counts requests that got no response at all
+    private final AtomicReferenceArray<LongAdder> statuses = new AtomicReferenceArray<>(600);
+
+    EndpointStats(String test, String method, String endpoint) {
+        this.test = test;
+        this.method = method;
+        this.endpoint = endpoint;
+    }
+
+    void record(int status, long timeToFirstByteNanos, long totalNanos, long sent, long received) {
+        count.increment();
+        sentBytes.add(sent);
+        receivedBytes.add(received);
+        if (timeToFirstByteNanos > 0) {
+            timeToFirstByte.recordValue(Math.min(timeToFirstByteNanos, HIGHEST_TRACKABLE_NANOS));
+        }
+        total.recordValue(Math.min(Math.max(totalNanos, 0), HIGHEST_TRACKABLE_NANOS));
+
+        int slot = status > 0 && status < 600 ? status : 0;
+        LongAdder adder = statuses.get(slot);
+        if (adder == null) {
+            statuses.compareAndSet(slot, null, new LongAdder());
+            adder = statuses.get(slot);
+        }
+        adder.increment();
+    }
+
+    public String getTest() {
+        return test;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSentBytes() {
+        return sentBytes.sum();
+    }
+
+    public long getReceivedBytes() {
+        return receivedBytes.sum();
+    }
+
+    /**
+     * @return A snapshot of the time-to-first-byte histogram in nanoseconds.
+     */
+    public Histogram getTimeToFirstByte() {
+        return timeToFirstByte.copy();
+    }
+
+    /**
+     * @return A snapshot of the total-time histogram in nanoseconds.
+     */
+    public Histogram getTotal() {
+        return total.copy();
+    }
+
+    /**
+     * @return Request counts by status code; 0 stands for requests that failed without a response.
+     */
+    public Map<Integer, Long> getStatuses() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        for (int status = 0; status < statuses.length(); status++) {
+            LongAdder adder = statuses.get(status);
+            if (adder != null) {
+                counts.put(status, adder.sum());
+            }
+        }
+        return counts;
+    }
+}
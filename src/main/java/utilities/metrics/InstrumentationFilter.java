@@ -0,0 +1,47 @@
+package utilities.metrics;
+
+import io.restassured.filter.FilterContext;
+import io.restassured.filter.OrderedFilter;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+/**
+ * RestAssured filter that records every request into {@link RequestMetrics}.
+ *
+ * It runs after all other filters, so the measured time covers sending the request and reading the response body but
+ * not logging or other filters. The path is taken from the request specification instead of the full URI, because
+ * building the URI would cost more than the rest of the recording.
+ */
+public class InstrumentationFilter implements OrderedFilter {
+
+    private final RequestMetrics metrics;
+
+    public InstrumentationFilter(RequestMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext context) {
+        WireExchange wire = WireExchange.current();
+        long start = wire.begin();
+        int status = 0;
+        try {
+            Response response = context.next(requestSpec, responseSpec);
+            status = response.statusCode();
+            // RestAssured reads the body only after the filters have run; reading it here (it is cached, so it is
+            // still read once) puts the transfer time and size into the measurement
+            response.asByteArray();
+            return response;
+        } finally {
+            metrics.record(requestSpec.getMethod(), requestSpec.getBasePath() + requestSpec.getDerivedPath(), status,
+                    wire.getTimeToFirstByteNanos(), System.nanoTime() - start, wire.getSentBytes(), wire.getReceivedBytes());
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,43 @@
+package utilities.metrics;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestResult;
+import utilities.ConfigReader;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * TestNG listener that attributes requests to the test (or configuration) method that sends them, and writes the
+ * {@link RequestMetrics} reports into "MetricsDir" (default "target/request-metrics") when the suite ends.
+ *
+ * Register it with {@code @Listeners(InstrumentationListener.class)} on a test class.
+ */
+public class InstrumentationListener implements IInvokedMethodListener, ISuiteListener {
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        RequestMetrics.setCurrentTest(method.getTestMethod().getRealClass().getSimpleName() + "."
+                + method.getTestMethod().getMethodName());
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        RequestMetrics.clearCurrentTest();
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        Path dir = Paths.get(ConfigReader.getProperty("MetricsDir", "target/request-metrics"));
+        try {
+            RequestMetrics.shared().writeReports(dir);
+            System.out.println("Request metrics written to " + dir.toAbsolutePath());
+        } catch (IOException e) {
+            System.out.println("Error while writing request metrics: " + e.getMessage());
+        }
+    }
+}
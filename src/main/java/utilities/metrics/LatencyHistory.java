@@ -0,0 +1,212 @@
+package utilities.metrics;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * An append-only file with one line of per-endpoint latency summaries per run.
+ *
+ * A line is tab-separated: first "&lt;epoch millis&gt; &lt;target&gt;", then one "&lt;method&gt; &lt;endpoint&gt;
+ * &lt;count&gt; &lt;p50 micros&gt; &lt;p99 micros&gt; &lt;requests per second&gt;" record per endpoint, e.g.
+ * "POST /1/boards 1 153200 153200 0.412"; the rate is written with a '.' whatever the default locale. The target is
+ * the host the run talked to ("stub" for the embedded stub), so runs against different servers are never compared.
+ * Each line is appended with a single write, so a hundred runs cost a few tens of KB and a crashed run can at worst
+ * leave one torn line, which is skipped.
+ */
+public class LatencyHistory {
+
+    private final Path file;
+
+    public LatencyHistory(Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Summarises the requests recorded so far, merging all tests that called the same endpoint.
+     *
+     * @param metrics The recorded requests.
+     * @param target  The host the requests went to.
+     * @return The run summary, stamped with the current time.
+     */
+    public static Run summarise(RequestMetrics metrics, String target) {
+        Map<String, Histogram> merged = new TreeMap<>();
+        for (EndpointStats endpoint : metrics.getEndpoints()) {
+            Histogram total = endpoint.getTotal();
+            Histogram histogram = merged.get(endpoint.getMethod() + " " + endpoint.getEndpoint());
+            if (histogram == null) {
+                merged.put(endpoint.getMethod() + " " + endpoint.getEndpoint(), total);
+            } else {
+                histogram.add(total);
+            }
+        }
+        double seconds = metrics.getElapsedNanos() / 1e9;
+        Map<String, Summary> endpoints = new LinkedHashMap<>();
+        merged.forEach((key, histogram) -> endpoints.put(key, new Summary(histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / 1_000, histogram.getValueAtPercentile(99) / 1_000,
+                histogram.getTotalCount() / seconds)));
+        return new Run(System.currentTimeMillis(), target, endpoints);
+    }
+
+    /**
+     * Reads the most recent runs against a target.
+     *
+     * @param target The target to match.
+     * @param limit  The maximum number of runs to return.
+     * @return The runs, oldest first; empty if there is no history yet.
+     * @throws IOException If the file cannot be read.
+     */
+    public List<Run> recent(String target, int limit) throws IOException {
+        if (!Files.exists(file)) {
+            return List.of();
+        }
+        List<Run> runs = new ArrayList<>();
+        try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+            lines.forEach(line -> {
+                Run run = parse(line);
+                if (run != null && run.target.equals(target)) {
+                    runs.add(run);
+                }
+            });
+        }
+        return runs.size() <= limit ? runs : new ArrayList<>(runs.subList(runs.size() - limit, runs.size()));
+    }
+
+    /**
+     * Appends one run.
+     *
+     * @param run The run summary.
+     * @throws IOException If the file cannot be written.
+     */
+    public void append(Run run) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        StringBuilder line = new StringBuilder();
+        if (endsWithTornLine()) {
+            line.append('\n');
+        }
+        line.append(run.epochMillis).append(' ').append(run.target);
+        run.endpoints.forEach((endpoint, summary) -> line.append('\t').append(endpoint).append(' ')
+                .append(summary.count).append(' ').append(summary.p50Micros).append(' ').append(summary.p99Micros)
+                .append(' ').append(String.format(Locale.ROOT, "%.3f", summary.requestsPerSecond)));
+        line.append('\n');
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(line.toString().getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+
+    private boolean endsWithTornLine() throws IOException {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            return reader.size() > 0 && reader.read(last, reader.size() - 1) == 1 && last.get(0) != '\n';
+        }
+    }
+
+    private static Run parse(String line) {
+        String[] records = line.split("\t");
+        String[] header = records[0].split(" ");
+        if (header.length != 2) {
+            return null;
+        }
+        try {
+            Map<String, Summary> endpoints = new LinkedHashMap<>();
+            for (int i = 1; i < records.length; i++) {
+                String[] fields = records[i].split(" ");
+                if (fields.length != 6) {
+                    return null;
+                }
+                endpoints.put(fields[0] + " " + fields[1], new Summary(Long.parseLong(fields[2]),
+                        Long.parseLong(fields[3]), Long.parseLong(fields[4]), Double.parseDouble(fields[5])));
+            }
+            return new Run(Long.parseLong(header[0]), header[1], endpoints);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The endpoint summaries of one run.
+     */
+    public static final class Run {
+
+        final long epochMillis;
+        final String target;
+        final Map<String, Summary> endpoints;
+
+        Run(long epochMillis, String target, Map<String, Summary> endpoints) {
+            this.epochMillis = epochMillis;
+            this.target = target;
+            this.endpoints = Collections.unmodifiableMap(endpoints);
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        /**
+         * @return Summaries keyed by "METHOD endpoint", e.g. "POST /1/boards".
+         */
+        public Map<String, Summary> getEndpoints() {
+            return endpoints;
+        }
+    }
+
+    /**
+     * Count, median and 99th percentile latency and throughput of one endpoint in one run.
+     */
+    public static final class Summary {
+
+        final long count;
+        final long p50Micros;
+        final long p99Micros;
+        final double requestsPerSecond;
+
+        Summary(long count, long p50Micros, long p99Micros, double requestsPerSecond) {
+            this.count = count;
+            this.p50Micros = p50Micros;
+            this.p99Micros = p99Micros;
+            this.requestsPerSecond = requestsPerSecond;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getP50Micros() {
+            return p50Micros;
+        }
+
+        public long getP99Micros() {
+            return p99Micros;
+        }
+
+        public double getRequestsPerSecond() {
+            return requestsPerSecond;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package utilities.metrics;
+
+import utilities.ConfigReader;
+import utilities.cassette.Cassette;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fails a run whose endpoint latencies are clearly worse than in the previous runs against the same server.
+ *
+ * Each run's per-endpoint p50, p99 and throughput are appended to the {@link LatencyHistory} in "LatencyHistoryFile"
+ * (default "latency-history.log"). The baseline of an endpoint is the median of its values over the last
+ * "LatencyBaselineRuns" (default 10) runs that called it; with fewer than "LatencyMinBaselineRuns" (default 3) such
+ * runs the endpoint is only recorded. Network latency is noisy, so a value only counts as regressed when it exceeds
+ * the baseline by more than all of:
+ * <ul>
+ *     <li>"LatencyTolerance" (default 0.25, i.e. 25%) of the baseline,</li>
+ *     <li>"LatencyNoiseSigmas" (default 3) times the spread of the baseline runs (1.4826 times the median absolute
+ *     deviation, which a single outlier run does not inflate), and</li>
+ *     <li>"LatencyMinDeltaMillis" (default 50), so the usual jitter of a single request never fails a run.</li>
+ * </ul>
+ * With a handful of requests per endpoint the p99 is simply the slowest request, so p99 is only checked for endpoints
+ * called at least "LatencyMinP99Samples" (default 20) times in the run; p50 is always checked.
+ * Runs replayed from a cassette are neither checked nor recorded. "LatencyGate=false" turns the check off.
+ */
+public class LatencyRegressionGate {
+
+    private static final double MAD_TO_SIGMA = 1.4826;
+
+    private static boolean checked;
+
+    private final LatencyHistory history;
+    private final int baselineRuns;
+    private final int minBaselineRuns;
+    private final double tolerance;
+    private final double noiseSigmas;
+    private final long minDeltaMicros;
+    private final long minP99Samples;
+
+    public LatencyRegressionGate(LatencyHistory history, int baselineRuns, int minBaselineRuns, double tolerance,
+                                 double noiseSigmas, long minDeltaMillis, long minP99Samples) {
+        this.history = history;
+        this.baselineRuns = baselineRuns;
+        this.minBaselineRuns = minBaselineRuns;
+        this.tolerance = tolerance;
+        this.noiseSigmas = noiseSigmas;
+        this.minDeltaMicros = minDeltaMillis * 1_000;
+        this.minP99Samples = minP99Samples;
+    }
+
+    /**
+     * Creates a gate from the "Latency*" settings described above.
+     */
+    public static LatencyRegressionGate fromConfig() {
+        return new LatencyRegressionGate(
+                new LatencyHistory(Paths.get(ConfigReader.getProperty("LatencyHistoryFile", "latency-history.log"))),
+                (int) ConfigReader.getLong("LatencyBaselineRuns", 10),
+                (int) ConfigReader.getLong("LatencyMinBaselineRuns", 3),
+                ConfigReader.getDouble("LatencyTolerance", 0.25),
+                ConfigReader.getDouble("LatencyNoiseSigmas", 3),
+                ConfigReader.getLong("LatencyMinDeltaMillis", 50),
+                ConfigReader.getLong("LatencyMinP99Samples", 20));
+    }
+
+    /**
+     * Checks the shared {@link RequestMetrics} once per process, however many test classes call it, and records the
+     * run.
+     *
+     * @throws AssertionError If an endpoint regressed.
+     */
+    public static synchronized void checkOnce() {
+        if (checked || !Boolean.parseBoolean(ConfigReader.getProperty("LatencyGate", "true").trim())) {
+            return;
+        }
+        checked = true;
+        Cassette cassette = Cassette.shared();
+        if (cassette != null && cassette.isReplaying()) {
+            System.out.println("Latency gate: skipped, responses are replayed from a cassette");
+            return;
+        }
+        LatencyHistory.Run run = LatencyHistory.summarise(RequestMetrics.shared(), target());
+        if (run.getEndpoints().isEmpty()) {
+            return;
+        }
+        List<String> regressions;
+        try {
+            regressions = fromConfig().check(run);
+        } catch (IOException e) {
+            System.out.println("Error while checking latency history: " + e.getMessage());
+            return;
+        }
+        if (!regressions.isEmpty()) {
+            throw new AssertionError("Latency regressed on " + String.join(", ", regressions));
+        }
+    }
+
+    /**
+     * Compares a run with its baseline, prints the comparison and appends the run to the history.
+     *
+     * @param run The current run.
+     * @return The regressed values, e.g. "GET /1/cards/{id} p99"; empty if none.
+     * @throws IOException If the history cannot be read or written.
+     */
+    public List<String> check(LatencyHistory.Run run) throws IOException {
+        List<LatencyHistory.Run> previous = history.recent(run.getTarget(), baselineRuns);
+        List<String> regressions = new ArrayList<>();
+        StringBuilder table = new StringBuilder(String.format("Latency gate against %s (%s, last %d runs):%n",
+                run.getTarget(), history.getFile(), previous.size()));
+        table.append(String.format("%-40s %4s %10s %10s %8s %10s %10s %8s %8s  %s%n", "endpoint", "runs", "p50 base",
+                "p50 now", "diff", "p99 base", "p99 now", "diff", "req/s", "status"));
+        for (Map.Entry<String, LatencyHistory.Summary> entry : run.getEndpoints().entrySet()) {
+            String endpoint = entry.getKey();
+            LatencyHistory.Summary now = entry.getValue();
+            long[] p50s = previous.stream().filter(r -> r.getEndpoints().containsKey(endpoint))
+                    .mapToLong(r -> r.getEndpoints().get(endpoint).getP50Micros()).toArray();
+            long[] p99s = previous.stream().filter(r -> r.getEndpoints().containsKey(endpoint))
+                    .mapToLong(r -> r.getEndpoints().get(endpoint).getP99Micros()).toArray();
+            String status;
+            if (p50s.length < minBaselineRuns) {
+                status = "new";
+            } else {
+                boolean p50Regressed = isRegression(p50s, now.getP50Micros());
+                boolean p99Regressed = now.getCount() >= minP99Samples && isRegression(p99s, now.getP99Micros());
+                if (p50Regressed) {
+                    regressions.add(endpoint + " p50");
+                }
+                if (p99Regressed) {
+                    regressions.add(endpoint + " p99");
+                }
+                status = p50Regressed || p99Regressed ? "REGRESSED" : "ok";
+            }
+            table.append(String.format("%-40s %4d %10s %10s %8s %10s %10s %8s %8.2f  %s%n", endpoint, p50s.length,
+                    millis(p50s), millis(now.getP50Micros()), diff(p50s, now.getP50Micros()), millis(p99s),
+                    millis(now.getP99Micros()), diff(p99s, now.getP99Micros()), now.getRequestsPerSecond(), status));
+        }
+        System.out.print(table);
+        history.append(run);
+        return regressions;
+    }
+
+    private boolean isRegression(long[] baseline, long now) {
+        double median = median(baseline);
+        double sigma = MAD_TO_SIGMA * medianAbsoluteDeviation(baseline, median);
+        double limit = Math.max(median * (1 + tolerance), median + noiseSigmas * sigma);
+        return now > limit && now - median >= minDeltaMicros;
+    }
+
+    private static double median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2.0;
+    }
+
+    private static double medianAbsoluteDeviation(long[] values, double median) {
+        long[] deviations = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            deviations[i] = Math.round(Math.abs(values[i] - median));
+        }
+        return median(deviations);
+    }
+
+    private static String millis(long[] baseline) {
+        return baseline.length == 0 ? "-" : String.format("%.1f ms", median(baseline) / 1_000);
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.1f ms", micros / 1_000.0);
+    }
+
+    private static String diff(long[] baseline, long now) {
+        if (baseline.length == 0) {
+            return "-";
+        }
+        double median = median(baseline);
+        return median == 0 ? "-" : String.format("%+.0f%%", (now - median) * 100 / median);
+    }
+
+    /**
+     * @return "stub" for the embedded stub, otherwise the host of "TrelloBaseUrl".
+     */
+    private static String target() {
+        String baseUrl = ConfigReader.getProperty("TrelloBaseUrl", "").trim();
+        if (baseUrl.startsWith("stub")) {
+            return "stub";
+        }
+        String host = URI.create(baseUrl).getHost();
+        return host == null ? "unknown" : host;
+    }
+}
@@ -0,0 +1,268 @@
+package utilities.metrics;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-request measurements of every Trello call, grouped by test method, HTTP method and endpoint.
+ *
+ * Requests are recorded by {@link InstrumentationFilter} (RestAssured) and {@link UnirestInstrumentation} (Unirest),
+ * which take the time to first byte and wire byte counts from {@link WireExchange}. The current test method is set
+ * per thread by {@link InstrumentationListener}; requests outside of a test are recorded under "-". Ids in paths
+ * are replaced with "{id}", so "/1/cards/677f..." is recorded as "/1/cards/{id}".
+ *
+ * {@link #writeReports(Path)} writes the collected numbers as JSON, CSV and Prometheus text format.
+ */
+public class RequestMetrics {
+
+    private static final RequestMetrics SHARED = new RequestMetrics();
+    private static final ThreadLocal<String> CURRENT_TEST = ThreadLocal.withInitial(() -> "-");
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final Map<String, Map<String, Map<String, EndpointStats>>> stats = new ConcurrentHashMap<>();
+    private volatile long startNanos = System.nanoTime();
+
+    public static RequestMetrics shared() {
+        return SHARED;
+    }
+
+    /**
+     * Attributes this thread's following requests to a test method.
+     *
+     * @param test The test name, e.g. "TrelloTestRestAssured.createTrelloBoardAndStoreId".
+     */
+    public static void setCurrentTest(String test) {
+        CURRENT_TEST.set(test);
+    }
+
+    public static void clearCurrentTest() {
+        CURRENT_TEST.remove();
+    }
+
+    /**
+     * Records one request.
+     *
+     * @param method               The HTTP method.
+     * @param path                 The request path; ids in it are normalised.
+     * @param status               The response status, or 0 if there was no response.
+     * @param timeToFirstByteNanos The time until the response headers arrived, or 0 if unknown.
+     * @param totalNanos           The time until the response was read.
+     * @param sentBytes            The bytes written for the request.
+     * @param receivedBytes        The bytes of the response body.
+     */
+    public void record(String method, String path, int status, long timeToFirstByteNanos, long totalNanos,
+                       long sentBytes, long receivedBytes) {
+        String test = CURRENT_TEST.get();
+        String endpoint = endpointOf(path);
+        // Plain lookups first: computeIfAbsent with capturing lambdas would allocate on every request
+        Map<String, Map<String, EndpointStats>> byMethod = stats.get(test);
+        if (byMethod == null) {
+            byMethod = stats.computeIfAbsent(test, t -> new ConcurrentHashMap<>());
+        }
+        Map<String, EndpointStats> byEndpoint = byMethod.get(method);
+        if (byEndpoint == null) {
+            byEndpoint = byMethod.computeIfAbsent(method, m -> new ConcurrentHashMap<>());
+        }
+        EndpointStats endpointStats = byEndpoint.get(endpoint);
+        if (endpointStats == null) {
+            endpointStats = byEndpoint.computeIfAbsent(endpoint, e -> new EndpointStats(test, method, e));
+        }
+        endpointStats.record(status, timeToFirstByteNanos, totalNanos, sentBytes, receivedBytes);
+    }
+
+    /**
+     * @return Every endpoint recorded so far, sorted by test, endpoint and method.
+     */
+    public List<EndpointStats> getEndpoints() {
+        List<EndpointStats> endpoints = new ArrayList<>();
+        stats.values().forEach(byMethod -> byMethod.values().forEach(byEndpoint -> endpoints.addAll(byEndpoint.values())));
+        endpoints.sort(Comparator.comparing(EndpointStats::getTest)
+                .thenComparing(EndpointStats::getEndpoint)
+                .thenComparing(EndpointStats::getMethod));
+        return endpoints;
+    }
+
+    /**
+     * @return The time since the metrics were created or last reset, which is the window throughput is measured over.
+     */
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public void reset() {
+        stats.clear();
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Replaces every path segment that is a 24-character hex id with "{id}".
+     *
+     * @param path The request path, without query string.
+     * @return The normalised path; the same instance if it contains no ids.
+     */
+    static String endpointOf(String path) {
+        StringBuilder normalised = null;
+        int segmentStart = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            if (i < path.length() && path.charAt(i) != '/') {
+                continue;
+            }
+            if (i - segmentStart == 24 && isHex(path, segmentStart, i)) {
+                if (normalised == null) {
+                    normalised = new StringBuilder(path.length()).append(path, 0, segmentStart);
+                }
+                normalised.append("{id}");
+            } else if (normalised != null) {
+                normalised.append(path, segmentStart, i);
+            }
+            if (normalised != null && i < path.length()) {
+                normalised.append('/');
+            }
+            segmentStart = i + 1;
+        }
+        return normalised == null ? path : normalised.toString();
+    }
+
+    private static boolean isHex(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (Character.digit(s.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes requests.json, requests.csv and requests.prom into a directory.
+     *
+     * @param dir The report directory; created if missing.
+     * @throws IOException If a report cannot be written.
+     */
+    public void writeReports(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        List<EndpointStats> endpoints = getEndpoints();
+        try (Writer out = Files.newBufferedWriter(dir.resolve("requests.json"), StandardCharsets.UTF_8)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(toJson(endpoints), out);
+        }
+        try (Writer out = Files.newBufferedWriter(dir.resolve("requests.csv"), StandardCharsets.UTF_8)) {
+            writeCsv(endpoints, out);
+        }
+        try (Writer out = Files.newBufferedWriter(dir.resolve("requests.prom"), StandardCharsets.UTF_8)) {
+            writePrometheus(endpoints, out);
+        }
+    }
+
+    static JsonArray toJson(List<EndpointStats> endpoints) {
+        JsonArray array = new JsonArray();
+        for (EndpointStats endpoint : endpoints) {
+            JsonObject json = new JsonObject();
+            json.addProperty("test", endpoint.getTest());
+            json.addProperty("method", endpoint.getMethod());
+            json.addProperty("endpoint", endpoint.getEndpoint());
+            json.addProperty("count", endpoint.getCount());
+            JsonObject statuses = new JsonObject();
+            endpoint.getStatuses().forEach((status, count) -> statuses.addProperty(String.valueOf(status), count));
+            json.add("statuses", statuses);
+            json.add("timeToFirstByteMillis", latencyJson(endpoint.getTimeToFirstByte()));
+            json.add("totalMillis", latencyJson(endpoint.getTotal()));
+            json.addProperty("requestBytes", endpoint.getSentBytes());
+            json.addProperty("responseBytes", endpoint.getReceivedBytes());
+            array.add(json);
+        }
+        return array;
+    }
+
+    private static JsonObject latencyJson(Histogram histogram) {
+        JsonObject json = new JsonObject();
+        json.addProperty("mean", histogram.getMean() / 1e6);
+        json.addProperty("p50", histogram.getValueAtPercentile(50) / 1e6);
+        json.addProperty("p90", histogram.getValueAtPercentile(90) / 1e6);
+        json.addProperty("p99", histogram.getValueAtPercentile(99) / 1e6);
+        json.addProperty("max", histogram.getMaxValue() / 1e6);
+        return json;
+    }
+
+    static void writeCsv(List<EndpointStats> endpoints, Writer out) throws IOException {
+        out.write("test,method,endpoint,count,statuses,ttfb_p50_ms,ttfb_p99_ms,total_p50_ms,total_p90_ms,total_p99_ms,"
+                + "total_max_ms,request_bytes,response_bytes\n");
+        for (EndpointStats endpoint : endpoints) {
+            Histogram ttfb = endpoint.getTimeToFirstByte();
+            Histogram total = endpoint.getTotal();
+            StringBuilder statuses = new StringBuilder();
+            endpoint.getStatuses().forEach((status, count) ->
+                    statuses.append(statuses.length() == 0 ? "" : " ").append(status).append(':').append(count));
+            out.write(String.format("%s,%s,%s,%d,%s,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%d,%d%n",
+                    csv(endpoint.getTest()), endpoint.getMethod(), csv(endpoint.getEndpoint()), endpoint.getCount(),
+                    statuses, ttfb.getValueAtPercentile(50) / 1e6, ttfb.getValueAtPercentile(99) / 1e6,
+                    total.getValueAtPercentile(50) / 1e6, total.getValueAtPercentile(90) / 1e6,
+                    total.getValueAtPercentile(99) / 1e6, total.getMaxValue() / 1e6,
+                    endpoint.getSentBytes(), endpoint.getReceivedBytes()));
+        }
+    }
+
+    static void writePrometheus(List<EndpointStats> endpoints, Writer out) throws IOException {
+        out.write("# HELP trello_request_duration_seconds Time until the response was read.\n");
+        out.write("# TYPE trello_request_duration_seconds summary\n");
+        for (EndpointStats endpoint : endpoints) {
+            writeSummary(out, "trello_request_duration_seconds", labels(endpoint), endpoint.getTotal());
+        }
+        out.write("# HELP trello_request_ttfb_seconds Time until the response headers arrived.\n");
+        out.write("# TYPE trello_request_ttfb_seconds summary\n");
+        for (EndpointStats endpoint : endpoints) {
+            writeSummary(out, "trello_request_ttfb_seconds", labels(endpoint), endpoint.getTimeToFirstByte());
+        }
+        out.write("# HELP trello_requests_total Requests by response status; status 0 means no response.\n");
+        out.write("# TYPE trello_requests_total counter\n");
+        for (EndpointStats endpoint : endpoints) {
+            String labels = labels(endpoint);
+            for (Map.Entry<Integer, Long> status : endpoint.getStatuses().entrySet()) {
+                out.write("trello_requests_total{" + labels + ",status=\"" + status.getKey() + "\"} " + status.getValue() + "\n");
+            }
+        }
+        out.write("# HELP trello_request_bytes_total Bytes written for requests.\n");
+        out.write("# TYPE trello_request_bytes_total counter\n");
+        for (EndpointStats endpoint : endpoints) {
+            out.write("trello_request_bytes_total{" + labels(endpoint) + "} " + endpoint.getSentBytes() + "\n");
+        }
+        out.write("# HELP trello_response_bytes_total Bytes of response bodies.\n");
+        out.write("# TYPE trello_response_bytes_total counter\n");
+        for (EndpointStats endpoint : endpoints) {
+            out.write("trello_response_bytes_total{" + labels(endpoint) + "} " + endpoint.getReceivedBytes() + "\n");
+        }
+    }
+
+    private static void writeSummary(Writer out, String name, String labels, Histogram histogram) throws IOException {
+        for (double quantile : QUANTILES) {
+            out.write(name + "{" + labels + ",quantile=\"" + quantile + "\"} "
+                    + histogram.getValueAtPercentile(quantile * 100) / 1e9 + "\n");
+        }
+        out.write(name + "_sum{" + labels + "} " + histogram.getMean() * histogram.getTotalCount() / 1e9 + "\n");
+        out.write(name + "_count{" + labels + "} " + histogram.getTotalCount() + "\n");
+    }
+
+    private static String labels(EndpointStats endpoint) {
+        return "test=\"" + escapeLabel(endpoint.getTest()) + "\",method=\"" + endpoint.getMethod()
+                + "\",endpoint=\"" + escapeLabel(endpoint.getEndpoint()) + "\"";
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String csv(String value) {
+        return value.contains(",") || value.contains("\"") ? "\"" + value.replace("\"", "\"\"") + "\"" : value;
+    }
+}
@@ -0,0 +1,60 @@
+package utilities.metrics;
+
+import com.mashape.unirest.http.HttpResponse;
+import com.mashape.unirest.http.exceptions.UnirestException;
+import com.mashape.unirest.request.HttpRequest;
+
+/**
+ * Records Unirest requests into {@link RequestMetrics}; the Unirest counterpart of {@link InstrumentationFilter}.
+ *
+ * Usage: {@code UnirestInstrumentation.send(request, request::asString)}.
+ */
+public final class UnirestInstrumentation {
+
+    private UnirestInstrumentation() {
+    }
+
+    /**
+     * Sends a request and records it.
+     *
+     * @param request The request, used for its method and URL.
+     * @param call    Sends the request and reads the response, e.g. {@code request::asString}.
+     * @return The response.
+     * @throws UnirestException If sending fails; the request is recorded with status 0.
+     */
+    public static <T> HttpResponse<T> send(HttpRequest request, Call<T> call) throws UnirestException {
+        WireExchange wire = WireExchange.current();
+        long start = wire.begin();
+        int status = 0;
+        try {
+            HttpResponse<T> response = call.send();
+            status = response.getStatus();
+            return response;
+        } finally {
+            RequestMetrics.shared().record(request.getHttpMethod().name(), pathOf(request.getUrl()), status,
+                    wire.getTimeToFirstByteNanos(), System.nanoTime() - start, wire.getSentBytes(), wire.getReceivedBytes());
+        }
+    }
+
+    /**
+     * @param url An absolute URL.
+     * @return Its path, without query string.
+     */
+    static String pathOf(String url) {
+        int scheme = url.indexOf("://");
+        int start = url.indexOf('/', scheme < 0 ? 0 : scheme + 3);
+        if (start < 0) {
+            return "/";
+        }
+        int query = url.indexOf('?', start);
+        return url.substring(start, query < 0 ? url.length() : query);
+    }
+
+    /**
+     * Sends one Unirest request.
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+        HttpResponse<T> send() throws UnirestException;
+    }
+}
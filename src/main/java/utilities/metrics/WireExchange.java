@@ -0,0 +1,69 @@
+package utilities.metrics;
+
+/**
+ * What the transport saw of the request the current thread is sending: when the response headers arrived and how
+ * many bytes went out and came back.
+ *
+ * Both client stacks send synchronously on the calling thread, so the transport fills in the current thread's
+ * exchange while the instrumentation around the client call reads it afterwards. One instance per thread is reused
+ * for every request, so recording allocates nothing.
+ */
+public final class WireExchange {
+
+    private static final ThreadLocal<WireExchange> CURRENT = ThreadLocal.withInitial(WireExchange::new);
+
+    private long startNanos;
+    private long headersNanos;
+    private long sentBytes;
+    private long receivedBytes;
+
+    private WireExchange() {
+    }
+
+    public static WireExchange current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Starts a new exchange on this thread.
+     *
+     * @return The start time in nanoseconds.
+     */
+    public long begin() {
+        headersNanos = 0;
+        sentBytes = 0;
+        receivedBytes = 0;
+        startNanos = System.nanoTime();
+        return startNanos;
+    }
+
+    /**
+     * Records that the response headers arrived; the last call wins, so retries report the final attempt.
+     */
+    public void onHeaders() {
+        headersNanos = System.nanoTime();
+    }
+
+    public void addSent(long bytes) {
+        sentBytes += bytes;
+    }
+
+    public void addReceived(long bytes) {
+        receivedBytes += bytes;
+    }
+
+    /**
+     * @return The time from {@link #begin()} to the response headers, or 0 if the transport did not see them.
+     */
+    public long getTimeToFirstByteNanos() {
+        return headersNanos == 0 ? 0 : headersNanos - startNanos;
+    }
+
+    public long getSentBytes() {
+        return sentBytes;
+    }
+
+    public long getReceivedBytes() {
+        return receivedBytes;
+    }
+}
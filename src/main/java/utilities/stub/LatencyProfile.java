@@ -0,0 +1,106 @@
+package utilities.stub;
+
+import utilities.ConfigReader;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Describes how the stub server delays and fails requests so that runs against it can mimic a real network.
+ *
+ * A profile is made of a fixed base latency, a uniformly distributed jitter added on top of it, and an error rate
+ * with the HTTP status that is returned for injected failures.
+ */
+public final class LatencyProfile {
+
+    /** Answers immediately and never fails; used to measure pure client overhead. */
+    public static final LatencyProfile NONE = new LatencyProfile(0, 0, 0.0, 500);
+    /** Roughly what a same-datacenter service looks like. */
+    public static final LatencyProfile LAN = new LatencyProfile(1, 2, 0.0, 500);
+    /** Roughly what api.trello.com looks like from a CI runner. */
+    public static final LatencyProfile WAN = new LatencyProfile(120, 180, 0.0, 500);
+    /** WAN latency with occasional throttling, for exercising retry paths. */
+    public static final LatencyProfile FLAKY = new LatencyProfile(120, 180, 0.05, 429);
+
+    private final long baseMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+    private final int errorStatus;
+
+    public LatencyProfile(long baseMillis, long jitterMillis, double errorRate, int errorStatus) {
+        if (baseMillis < 0 || jitterMillis < 0) {
+            throw new IllegalArgumentException("Latency values must not be negative");
+        }
+        if (errorRate < 0.0 || errorRate > 1.0) {
+            throw new IllegalArgumentException("Error rate must be between 0 and 1: " + errorRate);
+        }
+        this.baseMillis = baseMillis;
+        this.jitterMillis = jitterMillis;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+    }
+
+    /**
+     * Builds a profile from the configuration.
+     * "StubProfile" selects a preset (NONE, LAN, WAN, FLAKY), and "StubLatencyMillis", "StubJitterMillis",
+     * "StubErrorRate" and "StubErrorStatus" override single values of it.
+     *
+     * @return The configured profile.
+     */
+    public static LatencyProfile fromConfig() {
+        LatencyProfile preset = byName(ConfigReader.getProperty("StubProfile", "NONE"));
+        return new LatencyProfile(
+                ConfigReader.getLong("StubLatencyMillis", preset.baseMillis),
+                ConfigReader.getLong("StubJitterMillis", preset.jitterMillis),
+                ConfigReader.getDouble("StubErrorRate", preset.errorRate),
+                (int) ConfigReader.getLong("StubErrorStatus", preset.errorStatus));
+    }
+
+    /**
+     * Looks up a preset profile by name.
+     *
+     * @param name The preset name, case-insensitive.
+     * @return The preset.
+     */
+    public static LatencyProfile byName(String name) {
+        switch (name.trim().toUpperCase()) {
+            case "NONE":
+                return NONE;
+            case "LAN":
+                return LAN;
+            case "WAN":
+                return WAN;
+            case "FLAKY":
+                return FLAKY;
+            default:
+                throw new IllegalArgumentException("Unknown stub profile: " + name);
+        }
+    }
+
+    /**
+     * Draws the delay for one request.
+     *
+     * @return The delay in milliseconds.
+     */
+    public long nextDelayMillis() {
+        return jitterMillis == 0 ? baseMillis : baseMillis + ThreadLocalRandom.current().nextLong(jitterMillis + 1);
+    }
+
+    /**
+     * Decides whether one request should fail.
+     *
+     * @return true if an error should be injected.
+     */
+    public boolean nextIsError() {
+        return errorRate > 0.0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+    }
+
+    public int getErrorStatus() {
+        return errorStatus;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyProfile{base=" + baseMillis + "ms, jitter=" + jitterMillis + "ms, errorRate=" + errorRate
+                + ", errorStatus=" + errorStatus + "}";
+    }
+}
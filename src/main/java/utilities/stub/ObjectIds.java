@@ -0,0 +1,57 @@
+package utilities.stub;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates Trello-style identifiers: 24 lowercase hex characters laid out like a MongoDB ObjectId
+ * (4-byte seconds timestamp, 5-byte per-process random value, 3-byte counter).
+ */
+public final class ObjectIds {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final long PROCESS_RANDOM = new SecureRandom().nextLong() & 0xFF_FFFF_FFFFL;
+    private static final AtomicInteger COUNTER = new AtomicInteger(new SecureRandom().nextInt());
+
+    private ObjectIds() {
+    }
+
+    /**
+     * Creates a new, process-unique 24-hex id.
+     *
+     * @return The generated id.
+     */
+    public static String next() {
+        char[] out = new char[24];
+        writeHex(out, 0, System.currentTimeMillis() / 1000, 8);
+        writeHex(out, 8, PROCESS_RANDOM, 10);
+        writeHex(out, 18, COUNTER.getAndIncrement() & 0xFF_FFFF, 6);
+        return new String(out);
+    }
+
+    /**
+     * Checks whether the given value looks like a Trello id.
+     *
+     * @param value The value to check.
+     * @return true if the value is 24 hex characters.
+     */
+    public static boolean isValid(String value) {
+        if (value == null || value.length() != 24) {
+            return false;
+        }
+        for (int i = 0; i < 24; i++) {
+            char c = value.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeHex(char[] out, int offset, long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            out[offset + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,661 @@
+package utilities.stub;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import utilities.ConfigReader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An in-process, stateful stand-in for the parts of the Trello REST API that the tests use.
+ *
+ * The server keeps boards, lists and cards in memory and answers the same routes and query parameters as
+ * https://api.trello.com/1, so the test classes can run against it by pointing "TrelloBaseUrl" at "stub" (or
+ * "stub:port"). Responses are shaped like Trello's, ids are 24-hex ObjectIds, and every request is delayed and
+ * optionally failed according to the current {@link LatencyProfile}. Like Trello, the server can also limit the
+ * requests per token and answer 429 with Retry-After ("StubTokenLimit" per "StubTokenWindowMillis", off by default).
+ *
+ * Supported routes (all under /1):
+ * POST /boards, GET /boards/{id}, DELETE /boards/{id},
+ * POST /lists, GET /lists/{id}, POST /lists/{id}/archiveAllCards, GET /lists/{id}/cards (open cards, newest first,
+ * paged with limit and before),
+ * POST /cards, GET /cards/{id}, PUT /cards/{id}, DELETE /cards/{id},
+ * GET /batch?urls=/boards/{id},/cards/{id},... (up to 10 of the GET routes above in one request; like Trello, the
+ * result is an array with {"200": body} for each route that succeeded and {"name", "message", "statusCode"} for each
+ * one that failed).
+ * The GET routes honour "fields" like Trello documents it for them; creates and updates return the whole entity.
+ * Bodies of 256 bytes or more are gzip-compressed when the request accepts it.
+ */
+public class TrelloStubServer implements AutoCloseable {
+
+    private static final String API_PREFIX = "/1";
+    private static final int MAX_BATCH_URLS = 10;
+    // Like most front ends, smaller bodies are sent as they are: the gzip header and trailer would outweigh the saving
+    private static final int GZIP_MIN_BYTES = 256;
+
+    static {
+        // Without TCP_NODELAY the separate header and body writes of HttpServer hit delayed ACKs (~40 ms per request)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private static TrelloStubServer shared;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, JsonObject> boards = new ConcurrentHashMap<>();
+    private final Map<String, JsonObject> lists = new ConcurrentHashMap<>();
+    private final Map<String, JsonObject> cards = new ConcurrentHashMap<>();
+    private final Map<String, TokenWindow> tokenWindows = new ConcurrentHashMap<>();
+    private volatile LatencyProfile profile;
+    private volatile int tokenLimit;
+    private volatile long tokenWindowMillis = 10_000;
+
+    /**
+     * Starts a stub server on the loopback interface.
+     *
+     * @param port    The port to listen on, or 0 for an ephemeral port.
+     * @param profile The latency and error profile to apply to every request.
+     * @throws IOException If the port cannot be bound.
+     */
+    public TrelloStubServer(int port, LatencyProfile profile) throws IOException {
+        this.profile = profile;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "trello-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(API_PREFIX + "/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Returns the process-wide stub server, starting it on first use with the configured latency profile.
+     *
+     * @param port The port to bind on first use, or 0 for an ephemeral port.
+     * @return The shared server.
+     */
+    public static synchronized TrelloStubServer shared(int port) {
+        if (shared == null) {
+            // HttpServer's dispatcher thread inherits the daemon flag of the thread that starts it, so the embedded
+            // server is started from a daemon thread to keep it from holding the JVM open after a run
+            TrelloStubServer[] started = new TrelloStubServer[1];
+            IOException[] failure = new IOException[1];
+            Thread starter = new Thread(() -> {
+                try {
+                    started[0] = new TrelloStubServer(port, LatencyProfile.fromConfig());
+                    started[0].setTokenLimit((int) ConfigReader.getLong("StubTokenLimit", 0),
+                            ConfigReader.getLong("StubTokenWindowMillis", 10_000));
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            }, "trello-stub-starter");
+            starter.setDaemon(true);
+            starter.start();
+            try {
+                starter.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (started[0] == null) {
+                throw new IllegalStateException("Could not start Trello stub server on port " + port, failure[0]);
+            }
+            shared = started[0];
+        }
+        return shared;
+    }
+
+    /**
+     * @return The base URL to use instead of https://api.trello.com/1.
+     */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + API_PREFIX;
+    }
+
+    public LatencyProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Replaces the latency and error profile; takes effect for the next request.
+     *
+     * @param profile The new profile.
+     */
+    public void setProfile(LatencyProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Makes the server throttle like Trello: every token may send {@code requests} requests per window, and further
+     * requests get 429 with a Retry-After header until the window ends.
+     *
+     * @param requests     The number of requests per token and window, or 0 for no limit.
+     * @param windowMillis The window length in milliseconds.
+     */
+    public void setTokenLimit(int requests, long windowMillis) {
+        this.tokenWindowMillis = windowMillis;
+        this.tokenLimit = requests;
+        tokenWindows.clear();
+    }
+
+    /**
+     * @return The number of boards currently held by the server.
+     */
+    public int boardCount() {
+        return boards.size();
+    }
+
+    /**
+     * Drops every board, list and card.
+     */
+    public void reset() {
+        boards.clear();
+        lists.clear();
+        cards.clear();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            LatencyProfile current = profile;
+            long delay = current.nextDelayMillis();
+            if (delay > 0) {
+                Thread.sleep(delay);
+            }
+
+            StubResponse response;
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            long retryAfterMillis = throttle(query.get("token"));
+            if (retryAfterMillis > 0) {
+                response = injectedError(429);
+                response.headers.put("Retry-After", String.valueOf((retryAfterMillis + 999) / 1000));
+            } else if (current.nextIsError()) {
+                response = injectedError(current.getErrorStatus());
+            } else {
+                String path = exchange.getRequestURI().getRawPath().substring(API_PREFIX.length());
+                response = dispatch(exchange.getRequestMethod(), path, query);
+            }
+            write(exchange, response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Routes one request to the in-memory model.
+     *
+     * @param method The HTTP method.
+     * @param path   The path below /1, e.g. "/cards/{id}".
+     * @param query  The decoded query parameters.
+     * @return The response to send.
+     */
+    StubResponse dispatch(String method, String path, Map<String, String> query) {
+        if (query.get("key") == null || query.get("token") == null) {
+            return StubResponse.text(401, "invalid key");
+        }
+        String[] segments = path.split("/");
+        if (segments.length < 2) {
+            return notFound();
+        }
+        String resource = segments[1];
+        String id = segments.length > 2 ? segments[2] : null;
+        if (id != null && !ObjectIds.isValid(id)) {
+            return StubResponse.text(400, "invalid id");
+        }
+        String action = segments.length > 3 ? "/" + segments[3] : "";
+
+        switch (method + " " + resource + (id == null ? "" : "/{id}") + action) {
+            case "POST boards":
+                return createBoard(query);
+            case "GET boards/{id}":
+                return read(boards, id, query);
+            case "DELETE boards/{id}":
+                return deleteBoard(id);
+            case "POST lists":
+                return createList(query);
+            case "GET lists/{id}":
+                return read(lists, id, query);
+            case "POST lists/{id}/archiveAllCards":
+                return archiveAllCards(id);
+            case "GET lists/{id}/cards":
+                return listCards(id, query);
+            case "POST cards":
+                return createCard(query);
+            case "GET cards/{id}":
+                return read(cards, id, query);
+            case "PUT cards/{id}":
+                return updateCard(id, query);
+            case "DELETE cards/{id}":
+                return deleteCard(id);
+            case "GET batch":
+                return batch(query);
+            default:
+                return notFound();
+        }
+    }
+
+    private static StubResponse read(Map<String, JsonObject> resources, String id, Map<String, String> query) {
+        JsonObject resource = resources.get(id);
+        if (resource == null) {
+            return notFound();
+        }
+        synchronized (resource) {
+            return StubResponse.json(200, project(resource, query));
+        }
+    }
+
+    /**
+     * Applies Trello's "fields" parameter: only the named fields and the id are returned; missing or "all" returns
+     * every field. Nested collections ("lists", "labels", ...) are never returned by this stub, so their "none"
+     * parameters need no handling.
+     *
+     * @param resource The resource; the caller holds its lock if it can change.
+     * @param query    The decoded query parameters.
+     * @return A copy of the resource with the requested fields.
+     */
+    private static JsonObject project(JsonObject resource, Map<String, String> query) {
+        String fields = query.get("fields");
+        if (fields == null || fields.isBlank() || "all".equals(fields)) {
+            return resource.deepCopy();
+        }
+        JsonObject projected = new JsonObject();
+        projected.add("id", resource.get("id"));
+        for (String field : fields.split(",")) {
+            JsonElement value = resource.get(field.trim());
+            if (value != null) {
+                projected.add(field.trim(), value.deepCopy());
+            }
+        }
+        return projected;
+    }
+
+    /**
+     * Answers several GET routes in one request. The routes are answered one after another with the batch's
+     * credentials, and the batch as a whole is delayed and counted against the token only once.
+     */
+    private StubResponse batch(Map<String, String> query) {
+        String urls = query.get("urls");
+        if (urls == null || urls.isBlank()) {
+            return StubResponse.text(400, "invalid value for urls");
+        }
+        String[] routes = urls.split(",");
+        if (routes.length > MAX_BATCH_URLS) {
+            return StubResponse.text(400, "invalid value for urls: at most " + MAX_BATCH_URLS + " urls are allowed");
+        }
+        JsonArray results = new JsonArray();
+        for (String route : routes) {
+            int questionMark = route.indexOf('?');
+            String path = questionMark < 0 ? route : route.substring(0, questionMark);
+            if (path.startsWith(API_PREFIX + "/")) {
+                path = path.substring(API_PREFIX.length());
+            }
+            Map<String, String> routeQuery = parseQuery(questionMark < 0 ? null : route.substring(questionMark + 1));
+            routeQuery.put("key", query.get("key"));
+            routeQuery.put("token", query.get("token"));
+            path = path.startsWith("/") ? path : "/" + path;
+            StubResponse response = path.startsWith("/batch")
+                    ? StubResponse.text(400, "invalid value for urls: batches cannot be nested")
+                    : dispatch("GET", path, routeQuery);
+            JsonObject result = new JsonObject();
+            String body = new String(response.body, StandardCharsets.UTF_8);
+            if (response.status == 200) {
+                result.add("200", JsonParser.parseString(body));
+            } else {
+                result.addProperty("name", response.status == 404 ? "NotFoundError" : "Error");
+                result.addProperty("message", body);
+                result.addProperty("statusCode", response.status);
+            }
+            results.add(result);
+        }
+        return StubResponse.json(200, results);
+    }
+
+    private StubResponse createBoard(Map<String, String> query) {
+        String name = query.get("name");
+        if (name == null || name.isBlank()) {
+            return StubResponse.text(400, "invalid value for name");
+        }
+        String id = ObjectIds.next();
+        JsonObject board = new JsonObject();
+        board.addProperty("id", id);
+        board.addProperty("name", name);
+        board.addProperty("desc", query.getOrDefault("desc", ""));
+        board.add("descData", null);
+        board.addProperty("closed", false);
+        board.addProperty("idOrganization", ObjectIds.next());
+        board.add("idEnterprise", null);
+        board.addProperty("pinned", false);
+        board.addProperty("url", "https://trello.com/b/" + id.substring(16) + "/" + slug(name));
+        board.addProperty("shortUrl", "https://trello.com/b/" + id.substring(16));
+        board.add("prefs", boardPrefs());
+        board.add("labelNames", labelNames());
+        board.add("limits", new JsonObject());
+        boards.put(id, board);
+        return StubResponse.json(200, board);
+    }
+
+    private StubResponse deleteBoard(String id) {
+        if (boards.remove(id) == null) {
+            return notFound();
+        }
+        lists.values().removeIf(list -> id.equals(list.get("idBoard").getAsString()));
+        cards.values().removeIf(card -> id.equals(card.get("idBoard").getAsString()));
+        JsonObject body = new JsonObject();
+        body.add("_value", null);
+        return StubResponse.json(200, body);
+    }
+
+    private StubResponse createList(Map<String, String> query) {
+        String name = query.get("name");
+        String idBoard = query.get("idBoard");
+        if (name == null || name.isBlank()) {
+            return StubResponse.text(400, "invalid value for name");
+        }
+        if (idBoard == null || !boards.containsKey(idBoard)) {
+            return StubResponse.text(400, "invalid value for idBoard");
+        }
+        JsonObject list = new JsonObject();
+        list.addProperty("id", ObjectIds.next());
+        list.addProperty("name", name);
+        list.addProperty("closed", false);
+        list.addProperty("idBoard", idBoard);
+        list.addProperty("pos", 16384);
+        list.add("limits", new JsonObject());
+        lists.put(list.get("id").getAsString(), list);
+        return StubResponse.json(200, list);
+    }
+
+    private StubResponse archiveAllCards(String idList) {
+        if (!lists.containsKey(idList)) {
+            return notFound();
+        }
+        for (JsonObject card : cards.values()) {
+            if (idList.equals(card.get("idList").getAsString())) {
+                synchronized (card) {
+                    card.addProperty("closed", true);
+                }
+            }
+        }
+        return StubResponse.json(200, new JsonObject());
+    }
+
+    private StubResponse listCards(String idList, Map<String, String> query) {
+        if (!lists.containsKey(idList)) {
+            return notFound();
+        }
+        int limit;
+        try {
+            limit = Integer.parseInt(query.getOrDefault("limit", "1000"));
+        } catch (NumberFormatException e) {
+            return StubResponse.text(400, "invalid value for limit");
+        }
+        if (limit < 1 || limit > 1000) {
+            return StubResponse.text(400, "invalid value for limit");
+        }
+        String before = query.get("before");
+        // ObjectIds start with their creation time, so ordering by id orders by age like Trello's paging does
+        List<JsonObject> page = new ArrayList<>();
+        for (JsonObject card : cards.values()) {
+            String id = card.get("id").getAsString();
+            if (idList.equals(card.get("idList").getAsString()) && !card.get("closed").getAsBoolean()
+                    && (before == null || id.compareTo(before) < 0)) {
+                page.add(card);
+            }
+        }
+        page.sort(Comparator.comparing((JsonObject card) -> card.get("id").getAsString()).reversed());
+        JsonArray body = new JsonArray();
+        for (JsonObject card : page.subList(0, Math.min(limit, page.size()))) {
+            synchronized (card) {
+                body.add(project(card, query));
+            }
+        }
+        return StubResponse.json(200, body);
+    }
+
+    private StubResponse createCard(Map<String, String> query) {
+        String idList = query.get("idList");
+        JsonObject list = idList == null ? null : lists.get(idList);
+        if (list == null) {
+            return StubResponse.text(400, "invalid value for idList");
+        }
+        String id = ObjectIds.next();
+        JsonObject card = new JsonObject();
+        card.addProperty("id", id);
+        card.addProperty("name", query.getOrDefault("name", ""));
+        card.addProperty("desc", query.getOrDefault("desc", ""));
+        card.addProperty("closed", false);
+        card.addProperty("idBoard", list.get("idBoard").getAsString());
+        card.addProperty("idList", idList);
+        card.add("idLabels", new JsonArray());
+        card.add("idMembers", new JsonArray());
+        card.add("color", null);
+        card.addProperty("pos", 16384);
+        card.addProperty("shortUrl", "https://trello.com/c/" + id.substring(16));
+        card.addProperty("url", "https://trello.com/c/" + id.substring(16) + "/" + slug(card.get("name").getAsString()));
+        card.add("badges", new JsonObject());
+        card.add("limits", new JsonObject());
+        cards.put(id, card);
+        return StubResponse.json(200, card);
+    }
+
+    private StubResponse updateCard(String id, Map<String, String> query) {
+        JsonObject card = cards.get(id);
+        if (card == null) {
+            return notFound();
+        }
+        String idList = query.get("idList");
+        if (idList != null && !lists.containsKey(idList)) {
+            return StubResponse.text(400, "invalid value for idList");
+        }
+        synchronized (card) {
+            if (query.containsKey("name")) {
+                card.addProperty("name", query.get("name"));
+            }
+            if (query.containsKey("desc")) {
+                card.addProperty("desc", query.get("desc"));
+            }
+            if (query.containsKey("color")) {
+                card.addProperty("color", query.get("color"));
+            }
+            if (idList != null) {
+                card.addProperty("idList", idList);
+            }
+            return StubResponse.json(200, card.deepCopy());
+        }
+    }
+
+    private StubResponse deleteCard(String id) {
+        if (cards.remove(id) == null) {
+            return notFound();
+        }
+        JsonObject body = new JsonObject();
+        body.add("limits", new JsonObject());
+        return StubResponse.json(200, body);
+    }
+
+    /**
+     * Counts a request against its token's window.
+     *
+     * @param token The token, or null.
+     * @return 0 if the request is allowed, otherwise how many milliseconds remain in the window.
+     */
+    private long throttle(String token) {
+        int limit = tokenLimit;
+        if (limit <= 0 || token == null) {
+            return 0;
+        }
+        TokenWindow window = tokenWindows.computeIfAbsent(token, t -> new TokenWindow());
+        synchronized (window) {
+            long now = System.currentTimeMillis();
+            if (now - window.startMillis >= tokenWindowMillis) {
+                window.startMillis = now;
+                window.count = 0;
+            }
+            if (++window.count <= limit) {
+                return 0;
+            }
+            return Math.max(1, window.startMillis + tokenWindowMillis - now);
+        }
+    }
+
+    private static StubResponse notFound() {
+        return StubResponse.text(404, "The requested resource was not found.");
+    }
+
+    private static StubResponse injectedError(int status) {
+        if (status == 429) {
+            JsonObject body = new JsonObject();
+            body.addProperty("error", "API_TOKEN_LIMIT_EXCEEDED");
+            body.addProperty("message", "Rate limit exceeded");
+            return StubResponse.json(429, body);
+        }
+        return StubResponse.text(status, "Injected failure");
+    }
+
+    private static JsonObject boardPrefs() {
+        JsonObject prefs = new JsonObject();
+        prefs.addProperty("permissionLevel", "private");
+        prefs.addProperty("hideVotes", false);
+        prefs.addProperty("voting", "disabled");
+        prefs.addProperty("comments", "members");
+        prefs.addProperty("invitations", "members");
+        prefs.addProperty("selfJoin", true);
+        prefs.addProperty("cardCovers", true);
+        prefs.addProperty("isTemplate", false);
+        prefs.addProperty("cardAging", "regular");
+        prefs.addProperty("calendarFeedEnabled", false);
+        prefs.addProperty("background", "blue");
+        prefs.addProperty("backgroundColor", "#0079BF");
+        prefs.add("backgroundImage", null);
+        prefs.add("backgroundImageScaled", null);
+        prefs.addProperty("backgroundTile", false);
+        prefs.addProperty("backgroundBrightness", "dark");
+        prefs.addProperty("backgroundBottomColor", "#0079BF");
+        prefs.addProperty("backgroundTopColor", "#0079BF");
+        prefs.addProperty("canBePublic", true);
+        prefs.addProperty("canBeEnterprise", true);
+        prefs.addProperty("canBeOrg", true);
+        prefs.addProperty("canBePrivate", true);
+        prefs.addProperty("canInvite", true);
+        return prefs;
+    }
+
+    private static JsonObject labelNames() {
+        JsonObject labelNames = new JsonObject();
+        for (String color : new String[]{"green", "yellow", "orange", "red", "purple", "blue", "sky", "lime", "pink", "black"}) {
+            labelNames.addProperty(color, "");
+            labelNames.addProperty(color + "_dark", "");
+            labelNames.addProperty(color + "_light", "");
+        }
+        return labelNames;
+    }
+
+    private static String slug(String name) {
+        return name.toLowerCase().replaceAll("[^a-z0-9]+", "-");
+    }
+
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            query.put(key, value);
+        }
+        return query;
+    }
+
+    private static void write(HttpExchange exchange, StubResponse response) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", response.contentType);
+        response.headers.forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+        byte[] body = response.body;
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (body.length >= GZIP_MIN_BYTES && acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 2);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(body);
+            }
+            body = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+        }
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Starts a standalone stub server, e.g. for pointing another JVM at it.
+     *
+     * @param args Optional port, defaults to 8089.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        TrelloStubServer server = new TrelloStubServer(port, LatencyProfile.fromConfig());
+        System.out.println("Trello stub listening on " + server.getBaseUrl() + " with " + server.getProfile());
+    }
+
+    /**
+     * Requests counted for one token in the current window.
+     */
+    private static final class TokenWindow {
+        long startMillis = System.currentTimeMillis();
+        int count;
+    }
+
+    /**
+     * A status code plus an already encoded body and any extra headers.
+     */
+    static final class StubResponse {
+        final int status;
+        final String contentType;
+        final byte[] body;
+        final Map<String, String> headers = new LinkedHashMap<>();
+
+        private StubResponse(int status, String contentType, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        static StubResponse json(int status, JsonElement body) {
+            return new StubResponse(status, "application/json; charset=utf-8", body.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        static StubResponse text(int status, String body) {
+            return new StubResponse(status, "text/plain; charset=utf-8", body.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}